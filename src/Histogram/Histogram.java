@@ -11,14 +11,28 @@ import javax.swing.event.ChangeListener;
 /**
  * Generate a histogram from an array of integers. Supports a configurable number of bars, and can be changed after creation (mutable). When changed, notifies all register ActionListeners of the
  * change for them to update.
+ *
+ * Instead of raw samples, the histogram may be given the count for each bar (pre-binned), or have samples added and removed one at a time; these keep only the counts, so large data sets never
+ * need to be held in an array. Changes made between beginChanges() and endChanges() notify listeners once, at the end.
+ *
+ * bars() gives each bar as an immutable Bar, made once per change; barViews() gives reused views which always show the current counts.
  */
 public class Histogram {
     private final int MIN_VALUE = 0;
 
+    // Raw samples, or null when the histogram was given counts.
     private int[] data;
     private int numDivisions;
+    private int rangePerBar = 1;
+    private int[] counts = new int[0];
+    private int maxCount = 0;
+    private boolean isMaxCountValid = true;
+    // Immutable bars for the current counts, or null until asked for after a change.
     private List<Bar> bars;
+    private List<BarView> barViews = new ArrayList<BarView>();
     private List<ChangeListener> listeners = new ArrayList<ChangeListener>();
+    private int changeDepth = 0;
+    private boolean hasPendingChange = false;
 
     public Histogram(int[] data, int numBars) {
         assert numBars > 0;
@@ -27,37 +41,73 @@ public class Histogram {
         updateHistogram();
     }
 
+    /**
+     * Make an empty histogram for counts, where each bar covers rangePerBar values (bar 0 from 0 to rangePerBar - 1, and so on).
+     */
+    public Histogram(int numBars, int rangePerBar) {
+        assert numBars > 0;
+        assert rangePerBar > 0;
+        this.numDivisions = numBars;
+        this.rangePerBar = rangePerBar;
+        resizeCounts();
+    }
+
     public void setData(int[] data) {
         this.data = Arrays.copyOf(data, data.length);
         updateHistogram();
     }
 
-    public void setNumberBars(int numBars) {
-        assert numBars > 0;
-        this.numDivisions = numBars;
-        updateHistogram();
+    /**
+     * Set the count for each bar directly (one bar per count), with each bar covering one value.
+     */
+    public void setCounts(int[] countsPerBar) {
+        setCounts(countsPerBar, 1);
     }
 
-    private void updateHistogram() {
-        int[] counts = getCountOfValuesPerBar();
-        populateBars(counts);
-
+    /**
+     * Set the count for each bar directly (one bar per count), with each bar covering rangePerBar values.
+     */
+    public void setCounts(int[] countsPerBar, int rangePerBar) {
+        assert countsPerBar.length > 0;
+        assert rangePerBar > 0;
+        data = null;
+        numDivisions = countsPerBar.length;
+        this.rangePerBar = rangePerBar;
+        resizeCounts();
+        System.arraycopy(countsPerBar, 0, counts, 0, numDivisions);
+        isMaxCountValid = false;
         notifyListeners();
     }
 
-    private int[] getCountOfValuesPerBar() {
-        int rangePerBar = calculateRangePerBar(numDivisions);
+    /**
+     * Change the number of bars. Raw samples are re-binned; counts keep their range per bar, with bars added empty or removed from the end.
+     */
+    public void setNumberBars(int numBars) {
+        assert numBars > 0;
+        this.numDivisions = numBars;
+        if (data != null) {
+            updateHistogram();
+        } else {
+            resizeCounts();
+            isMaxCountValid = false;
+            notifyListeners();
+        }
+    }
 
-        int[] counts = new int[numDivisions];
+    private void updateHistogram() {
+        // Find the maximum once: it fixes the range of every bar.
+        rangePerBar = calculateRangePerBar(numDivisions, findMax(data));
+        resizeCounts();
+        Arrays.fill(counts, 0);
         for (int value : data) {
-            int barIndex = getBarIndexFromValue(value, rangePerBar);
-            counts[barIndex]++;
+            counts[getBarIndexFromValue(value, rangePerBar)]++;
         }
-        return counts;
+        isMaxCountValid = false;
+
+        notifyListeners();
     }
 
-    private int calculateRangePerBar(int numDivisions) {
-        int max = findMax(data);
+    private int calculateRangePerBar(int numDivisions, int max) {
         return (int) Math.ceil((double) (max + 1) / numDivisions);
     }
 
@@ -79,37 +129,98 @@ public class Histogram {
         return index;
     }
 
-    private void populateBars(int[] counts) {
-        assert counts.length == numDivisions;
-        int rangePerBar = calculateRangePerBar(numDivisions);
+    // Keep the counts (and bar views) for the current number of bars, reusing the existing storage.
+    private void resizeCounts() {
+        if (counts.length != numDivisions) {
+            counts = Arrays.copyOf(counts, numDivisions);
+        }
+        while (barViews.size() < numDivisions) {
+            barViews.add(new BarView(barViews.size()));
+        }
+    }
+
+    /*
+     * Incremental samples: each change is O(1). Only for histograms given counts, whose bar ranges are fixed.
+     */
+    public void addSample(int value) {
+        addSamples(value, 1);
+    }
+
+    public void removeSample(int value) {
+        addSamples(value, -1);
+    }
+
+    /**
+     * Add a sample of each value, notifying listeners once.
+     */
+    public void addSamples(int[] values) {
+        beginChanges();
+        try {
+            for (int value : values) {
+                addSamples(value, 1);
+            }
+        } finally {
+            endChanges();
+        }
+    }
 
-        bars = new ArrayList<Bar>(numDivisions);
-        for (int barNum = 0; barNum < numDivisions; barNum++) {
-            int rangeMin = barNum * rangePerBar;
-            int rangeMax = rangeMin + rangePerBar - 1;
-            int count = counts[barNum];
+    /**
+     * Add a number of samples of one value (or remove them, if the number is negative).
+     */
+    public void addSamples(int value, int numSamples) {
+        if (data != null) {
+            throw new IllegalStateException("Samples can only be added to a histogram of counts.");
+        }
+        int barIndex = value / rangePerBar;
+        if (value < MIN_VALUE || barIndex >= numDivisions) {
+            throw new IllegalArgumentException("Value " + value + " is outside the histogram's bars.");
+        }
+        if (counts[barIndex] + numSamples < 0) {
+            throw new IllegalArgumentException("Cannot remove more samples of " + value + " than were added.");
+        }
 
-            bars.add(new Bar(rangeMin, rangeMax, count));
+        if (isMaxCountValid && numSamples < 0 && counts[barIndex] == maxCount) {
+            isMaxCountValid = false;
         }
+        counts[barIndex] += numSamples;
+        if (isMaxCountValid) {
+            maxCount = Math.max(maxCount, counts[barIndex]);
+        }
+        notifyListeners();
     }
 
     public int getNumberBars() {
-        return bars.size();
+        return numDivisions;
     }
 
     public Iterable<Bar> bars() {
-        return Collections.unmodifiableList(bars);
+        if (bars == null) {
+            List<Bar> newBars = new ArrayList<Bar>(numDivisions);
+            for (BarView view : barViews.subList(0, numDivisions)) {
+                newBars.add(new Bar(view.getRangeMin(), view.getRangeMax(), view.getCount()));
+            }
+            bars = Collections.unmodifiableList(newBars);
+        }
+        return bars;
+    }
+
+    /**
+     * Get a view of each bar, which always shows the bar's current range and count (without making new objects).
+     */
+    public Iterable<BarView> barViews() {
+        return Collections.unmodifiableList(barViews.subList(0, numDivisions));
     }
 
     public int getMaxBarHeight() {
         // Histogram's minimum bar height is 0, even if empty.
-        int max = 0;
-        for (Bar bar : bars) {
-            if (bar.getCount() > max) {
-                max = bar.getCount();
+        if (!isMaxCountValid) {
+            maxCount = 0;
+            for (int barIndex = 0; barIndex < numDivisions; barIndex++) {
+                maxCount = Math.max(maxCount, counts[barIndex]);
             }
+            isMaxCountValid = true;
         }
-        return max;
+        return maxCount;
     }
 
     // Observer Functions
@@ -117,7 +228,28 @@ public class Histogram {
         listeners.add(listener);
     }
 
+    /**
+     * Start a batch of changes: listeners are notified once, when the batch ends. Batches may be nested.
+     */
+    public void beginChanges() {
+        changeDepth++;
+    }
+
+    public void endChanges() {
+        assert changeDepth > 0;
+        changeDepth--;
+        if (changeDepth == 0 && hasPendingChange) {
+            hasPendingChange = false;
+            notifyListeners();
+        }
+    }
+
     private void notifyListeners() {
+        bars = null;
+        if (changeDepth > 0) {
+            hasPendingChange = true;
+            return;
+        }
         ChangeEvent event = new ChangeEvent(this);
         for (ChangeListener listener : listeners) {
             listener.stateChanged(event);
@@ -155,4 +287,31 @@ public class Histogram {
             return "[" + rangeMin + ", " + rangeMax + "] = " + count;
         }
     }
+
+    /**
+     * View of a single histogram bar, which reflects any later change to the histogram.
+     */
+    public class BarView {
+        private int index;
+
+        private BarView(int index) {
+            this.index = index;
+        }
+
+        public int getRangeMin() {
+            return index * rangePerBar;
+        }
+
+        public int getRangeMax() {
+            return getRangeMin() + rangePerBar - 1;
+        }
+
+        public int getCount() {
+            return counts[index];
+        }
+
+        public String toString() {
+            return "[" + getRangeMin() + ", " + getRangeMax() + "] = " + getCount();
+        }
+    }
 }
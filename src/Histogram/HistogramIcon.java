@@ -9,11 +9,15 @@ import java.awt.font.FontRenderContext;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 
 import javax.swing.Icon;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 /**
  * An Icon which displays its associated Histogram. Draws Histogram to fill in the prescribed area, and listing the range and count for each bar.
+ * The drawing is cached in an image, so repainting an unchanged histogram only copies the image.
  */
 public class HistogramIcon implements Icon {
     private final int PADDING_WIDTH = 10;
@@ -34,10 +38,22 @@ public class HistogramIcon implements Icon {
     private int height;
     private int width;
 
+    // The icon as last drawn; redrawn only when the histogram, size, scale or font changes.
+    private BufferedImage cache;
+    private boolean isCacheValid = false;
+    private double cacheScale;
+    private Font cacheFont;
+
     public HistogramIcon(Histogram histogram, int width, int height) {
         this.histogram = histogram;
         this.width = width;
         this.height = height;
+        histogram.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                isCacheValid = false;
+            }
+        });
     }
 
     @Override
@@ -50,10 +66,50 @@ public class HistogramIcon implements Icon {
         return width;
     }
 
+    /**
+     * Change the size of the icon; it is redrawn at the new size.
+     */
+    public void setIconSize(int width, int height) {
+        if (width != this.width || height != this.height) {
+            this.width = width;
+            this.height = height;
+            isCacheValid = false;
+        }
+    }
+
     @Override
     public void paintIcon(Component c, Graphics g, int x, int y) {
         Graphics2D g2d = (Graphics2D) g;
+        double scale = g2d.getTransform().getScaleX();
+        if (!isCacheValid || scale != cacheScale || !g2d.getFont().equals(cacheFont)) {
+            renderCache(g2d, scale);
+        }
+        g2d.drawImage(cache, x, y, width, height, null);
+    }
+
+    // Render at the device's scale, so the cached image stays sharp on high resolution screens.
+    private void renderCache(Graphics2D g, double scale) {
+        int imageWidth = Math.max(1, (int) Math.ceil(width * scale));
+        int imageHeight = Math.max(1, (int) Math.ceil(height * scale));
+        if (cache == null || cache.getWidth() != imageWidth || cache.getHeight() != imageHeight) {
+            cache = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+        }
+
+        Graphics2D g2d = cache.createGraphics();
+        try {
+            g2d.setRenderingHints(g.getRenderingHints());
+            g2d.setFont(g.getFont());
+            g2d.scale(scale, scale);
+            drawHistogram(g2d, 0, 0);
+        } finally {
+            g2d.dispose();
+        }
+        cacheScale = scale;
+        cacheFont = g.getFont();
+        isCacheValid = true;
+    }
 
+    private void drawHistogram(Graphics2D g2d, int x, int y) {
         clearIcon(g2d, x, y);
 
         int originX = x + SPACE_SIDES;
@@ -73,7 +129,7 @@ public class HistogramIcon implements Icon {
 
         // Process each bar (draw bar and text)
         int countBars = 0;
-        for (Histogram.Bar bar : histogram.bars()) {
+        for (Histogram.BarView bar : histogram.barViews()) {
             int barLeft = originX + SPACE_BETWEEN_BARS + countBars * totalWidthPerBar;
             int barHeight = (int) (oneCountHeight * bar.getCount());
             int barTop = originY - barHeight;
@@ -108,14 +164,14 @@ public class HistogramIcon implements Icon {
         g2d.fill(new Rectangle2D.Double(barLeft, barTop, barWidth, barHeight));
     }
 
-    private void printRange(Graphics2D g2d, int barMiddleX, int originY, int countBars, Histogram.Bar bar) {
+    private void printRange(Graphics2D g2d, int barMiddleX, int originY, int countBars, Histogram.BarView bar) {
         g2d.setColor(TEXT_COLOUR);
         String range = "" + bar.getRangeMin();
         int textHeightOffset = TEXT_HEIGHT * (1 + countBars % NUM_ROWS_AXIS_TEXT);
         drawStringCentredOnX(g2d, originY + textHeightOffset, barMiddleX, range);
     }
 
-    private void printBarHeight(Graphics2D g2d, int barMiddleX, int barTop, Histogram.Bar bar) {
+    private void printBarHeight(Graphics2D g2d, int barMiddleX, int barTop, Histogram.BarView bar) {
         String heightText = "" + bar.getCount();
         drawStringCentredOnX(g2d, barTop - BARTEXT_OFFSET, barMiddleX, heightText);
     }
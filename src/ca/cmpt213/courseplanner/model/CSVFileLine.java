@@ -1,9 +1,18 @@
 package ca.cmpt213.courseplanner.model;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 /**
- * Contain information from a single line from the input CSV file.
+ * Contain information from a single line from the input CSV file. Fields are recorded as offsets into a reusable
+ * buffer, and values are only turned into objects when requested, so one line object can be reused for every line of
+ * a file. Quoted fields may contain commas and doubled ("") quotes.
+ *
+ * The COLUMN_ constants give the default column layout, used for files without a recognized header (see
+ * ColumnMapping).
  */
-public class CSVFileLine {
+public class CSVFileLine implements DataRow {
 
     public static final int COLUMN_SEMESTER = 0;
     public static final int COLUMN_SUBJECT = 1;
@@ -12,35 +21,161 @@ public class CSVFileLine {
     public static final int COLUMN_ENROLLMENT_CAP = 4;
     public static final int COLUMN_COMPONENT = 5;
     public static final int COLUMN_ENROLLMENT_TOTAL = 6;
-    public static final int COLUMN_INSTRUCTOR = 7; // And all beyond
+    public static final int COLUMN_INSTRUCTOR = 7; // And all beyond (see getPooledRemaining())
+
+    private static final int INITIAL_LINE_SIZE = 256;
+    private static final int INITIAL_NUM_FIELDS = 16;
+    private static final byte SEPARATOR = ',';
+    private static final byte QUOTE = '"';
+    private static final String INSTRUCTOR_SEPARATOR = ", ";
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
 
-    private String[] data;
+    private StringPool pool;
+    private byte[] data = new byte[INITIAL_LINE_SIZE];
+    private int[] fieldStarts = new int[INITIAL_NUM_FIELDS];
+    private int[] fieldEnds = new int[INITIAL_NUM_FIELDS];
+    private int numFields = 0;
+    private StringBuilder joinBuilder = new StringBuilder();
+
+    public CSVFileLine(StringPool pool) {
+        this.pool = pool;
+    }
 
     public CSVFileLine(String line) {
-        data = line.split(",");
+        this(new StringPool());
+        byte[] bytes = line.getBytes(CHARSET);
+        parse(bytes, 0, bytes.length);
     }
 
-    public String get(int columnSemester) {
-        if (data.length >= columnSemester + 1) {
-            return getColumnData(columnSemester);
-        } else {
+    /**
+     * Replace the contents of this line with the line stored in source[from, to), excluding the line terminator.
+     */
+    void parse(byte[] source, int from, int to) {
+        if (data.length < to - from) {
+            data = new byte[Math.max(to - from, data.length * 2)];
+        }
+
+        numFields = 0;
+        int length = 0;
+        int fieldStart = 0;
+        boolean inQuotes = false;
+        for (int i = from; i < to; i++) {
+            byte value = source[i];
+            if (inQuotes) {
+                if (value != QUOTE) {
+                    data[length++] = value;
+                } else if (i + 1 < to && source[i + 1] == QUOTE) {
+                    data[length++] = QUOTE;
+                    i++;
+                } else {
+                    inQuotes = false;
+                }
+            } else if (value == QUOTE) {
+                inQuotes = true;
+            } else if (value == SEPARATOR) {
+                addField(fieldStart, length);
+                fieldStart = length;
+            } else {
+                data[length++] = value;
+            }
+        }
+        addField(fieldStart, length);
+    }
+
+    private void addField(int start, int end) {
+        if (numFields == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, numFields * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, numFields * 2);
+        }
+        fieldStarts[numFields] = start;
+        fieldEnds[numFields] = end;
+        numFields++;
+    }
+
+    @Override
+    public int getNumberFields() {
+        return numFields;
+    }
+
+    @Override
+    public String get(int column) {
+        if (column >= numFields) {
             return "";
         }
+        return new String(data, fieldStarts[column], fieldLength(column), CHARSET);
     }
 
-    private String getColumnData(int columnSemester) {
-        if (columnSemester == COLUMN_INSTRUCTOR) {
-            String instructors = "";
-            for (int i = columnSemester; i < data.length; i++) {
-                if (instructors.length() > 0) {
-                    instructors += ", ";
-                }
-                instructors += data[i];
+    // Unquoted instructor lists spill over into the following columns, so rejoin them.
+    @Override
+    public String getPooledRemaining(int firstColumn) {
+        if (firstColumn + 1 >= numFields) {
+            return getPooled(firstColumn);
+        }
+        joinBuilder.setLength(0);
+        for (int column = firstColumn; column < numFields; column++) {
+            if (fieldLength(column) == 0) {
+                continue;
+            }
+            if (joinBuilder.length() > 0) {
+                joinBuilder.append(INSTRUCTOR_SEPARATOR);
             }
-            return instructors;
-        } else {
-            return data[columnSemester];
+            joinBuilder.append(new String(data, fieldStarts[column], fieldLength(column), CHARSET));
         }
+        return pool.intern(joinBuilder.toString());
+    }
+
+    // Repeated values are found in the pool from the line's bytes, so they cost no allocation.
+    @Override
+    public String getPooled(int column) {
+        if (column >= numFields) {
+            return "";
+        }
+        return pool.intern(data, fieldStarts[column], fieldLength(column));
+    }
+
+    @Override
+    public int getInt(int column) {
+        try {
+            return parseInt(column);
+        } catch (NumberFormatException e) {
+            System.out.println("Number conversion problem for string '" + get(column) + "'");
+            return 0;
+        }
+    }
+
+    // Parse the field's bytes as Integer.parseInt() would parse its text, without making a String of it.
+    private int parseInt(int column) {
+        if (column >= numFields || fieldLength(column) == 0) {
+            throw new NumberFormatException("Empty field");
+        }
+        int position = fieldStarts[column];
+        int end = fieldEnds[column];
+        boolean negative = data[position] == '-';
+        if (negative) {
+            position++;
+        }
+        if (position == end) {
+            throw new NumberFormatException("No digits");
+        }
+
+        // Accumulate negatively, since Integer.MIN_VALUE has no positive counterpart.
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int value = 0;
+        for (; position < end; position++) {
+            int digit = data[position] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Not a digit");
+            }
+            if (value < limit / 10 || value * 10 < limit + digit) {
+                throw new NumberFormatException("Out of range for an int");
+            }
+            value = value * 10 - digit;
+        }
+        return negative ? value : -value;
+    }
+
+    private int fieldLength(int column) {
+        return fieldEnds[column] - fieldStarts[column];
     }
 
 }
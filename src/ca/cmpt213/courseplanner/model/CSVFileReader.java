@@ -1,46 +1,226 @@
 package ca.cmpt213.courseplanner.model;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Scanner;
 
 /**
- * Read a CSV and allow access to each line of the file (a CSVFileLine object). Note: Pre-reads entire file when created so may affect performance.
+ * Read a CSV file one line at a time (each a CSVFileLine object). Streams the file through a reusable buffer so only
+ * the current line is held in memory, no matter how large the file is. A reader may be limited to one chunk of the
+ * file (see findChunkBoundaries()) so that chunks can be read in parallel.
  */
-public class CSVFileReader implements Iterable<CSVFileLine> {
-    List<CSVFileLine> lines = new LinkedList<CSVFileLine>();
+public class CSVFileReader implements DataRowReader {
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final int BOUNDARY_SCAN_SIZE = 4 * 1024;
 
-    public CSVFileReader(File file) throws FileNotFoundException {
-        FileReader reader = new FileReader(file);
-        Scanner scanner = new Scanner(reader);
+    private FileChannel channel;
+    private CSVFileLine fileLine;
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private ByteBuffer channelBuffer = ByteBuffer.wrap(buffer);
+    private int start = 0;
+    private int limit = 0;
+    private int lineStart = 0;
+    private int lineEnd = 0;
+    private boolean endOfFile = false;
+    private boolean isCompleteLinesOnly = false;
+    private long bytesLeftToRead;
+    private long bufferPosition;
+    private long startOffset;
+    private long endOffset;
+    private List<String> columnNames = Collections.emptyList();
 
-        skipHeader(scanner);
-        readAllLines(scanner);
+    public CSVFileReader(File file) throws IOException {
+        this(file, new StringPool());
+    }
+
+    /**
+     * Read the file, resolving pooled column values (see CSVFileLine.getPooled()) through the given pool.
+     */
+    public CSVFileReader(File file, StringPool pool) throws IOException {
+        this(file, 0, file.length(), pool);
+    }
+
+    /**
+     * Read only the lines in the byte range [startOffset, endOffset) of the file. Both offsets must be at the start of
+     * a line (or the end of the file). The header is read if the range starts at the beginning of the file.
+     */
+    public CSVFileReader(File file, long startOffset, long endOffset, StringPool pool) throws IOException {
+        fileLine = new CSVFileLine(pool);
+        channel = new FileInputStream(file).getChannel();
+        bytesLeftToRead = endOffset - startOffset;
+        bufferPosition = startOffset;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        try {
+            channel.position(startOffset);
+            if (startOffset == 0) {
+                readHeader();
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Split a file into chunks of roughly the given size, moving each split forward to the start of the next line.
+     *
+     * @return The chunk boundaries: chunk i is the byte range [boundaries[i], boundaries[i + 1]).
+     */
+    public static long[] findChunkBoundaries(File file, long targetChunkSize) throws IOException {
+        List<Long> boundaries = new ArrayList<Long>();
+        boundaries.add(0L);
+
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            long fileSize = channel.size();
+            ByteBuffer scanBuffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+            long boundary = 0;
+            while (boundary + targetChunkSize < fileSize) {
+                boundary = findNextLineStart(channel, boundary + targetChunkSize, scanBuffer);
+                boundaries.add(boundary);
+            }
+            if (boundary < fileSize) {
+                boundaries.add(fileSize);
+            }
+        }
 
-        scanner.close();
+        long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = boundaries.get(i);
+        }
+        return result;
     }
 
-    private void skipHeader(Scanner scanner) {
-        if (scanner.hasNextLine()) {
-            scanner.nextLine();
+    private static long findNextLineStart(FileChannel channel, long position, ByteBuffer scanBuffer) throws IOException {
+        while (true) {
+            scanBuffer.clear();
+            int bytesRead = channel.read(scanBuffer, position);
+            if (bytesRead < 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < bytesRead; i++) {
+                if (scanBuffer.get(i) == NEW_LINE) {
+                    return position + i + 1;
+                }
+            }
+            position += bytesRead;
         }
     }
 
-    private void readAllLines(Scanner scanner) {
-        while (scanner.hasNextLine()) {
-            String text = scanner.nextLine();
-            CSVFileLine fileLine = new CSVFileLine(text);
-            lines.add(fileLine);
+    private void readHeader() throws IOException {
+        if (findNextLine()) {
+            fileLine.parse(buffer, lineStart, lineEnd);
+            columnNames = ColumnMapping.readColumnNames(fileLine);
+        }
+    }
+
+    /**
+     * Only read lines that end in a line terminator, leaving an unterminated last line (such as a row still being
+     * appended to the file) unread, with getPosition() at its start.
+     */
+    public void setCompleteLinesOnly(boolean isCompleteLinesOnly) {
+        this.isCompleteLinesOnly = isCompleteLinesOnly;
+    }
+
+    @Override
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Get the offset in the file just past the last line read (including its line terminator).
+     */
+    public long getPosition() {
+        return bufferPosition + start;
+    }
+
+    @Override
+    public double getFractionRead() {
+        if (endOffset <= startOffset) {
+            return 1;
+        }
+        return (double) (getPosition() - startOffset) / (endOffset - startOffset);
+    }
+
+    @Override
+    public CSVFileLine nextLine() throws IOException {
+        while (findNextLine()) {
+            if (lineEnd > lineStart) {
+                fileLine.parse(buffer, lineStart, lineEnd);
+                return fileLine;
+            }
+        }
+        return null;
+    }
+
+    // Locate the next line in the buffer (as [lineStart, lineEnd)), reading more of the file as needed.
+    private boolean findNextLine() throws IOException {
+        int scan = start;
+        while (true) {
+            for (; scan < limit; scan++) {
+                if (buffer[scan] == NEW_LINE) {
+                    setLine(start, scan);
+                    start = scan + 1;
+                    return true;
+                }
+            }
+
+            if (endOfFile) {
+                if (start == limit || isCompleteLinesOnly) {
+                    return false;
+                }
+                setLine(start, limit);
+                start = limit;
+                return true;
+            }
+
+            scan -= start;
+            fillBuffer();
+        }
+    }
+
+    private void setLine(int from, int to) {
+        if (to > from && buffer[to - 1] == CARRIAGE_RETURN) {
+            to--;
+        }
+        lineStart = from;
+        lineEnd = to;
+    }
+
+    private void fillBuffer() throws IOException {
+        // Move the partial line to the front, growing the buffer if the line fills it.
+        int remaining = limit - start;
+        System.arraycopy(buffer, start, buffer, 0, remaining);
+        bufferPosition += start;
+        start = 0;
+        limit = remaining;
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            channelBuffer = ByteBuffer.wrap(buffer);
+        }
+
+        channelBuffer.limit((int) Math.min(buffer.length, limit + bytesLeftToRead));
+        channelBuffer.position(limit);
+        int bytesRead = channel.read(channelBuffer);
+        if (bytesRead <= 0) {
+            endOfFile = true;
+        } else {
+            limit += bytesRead;
+            bytesLeftToRead -= bytesRead;
         }
     }
 
-    public Iterator<CSVFileLine> iterator() {
-        return Collections.unmodifiableList(lines).iterator();
+    @Override
+    public void close() throws IOException {
+        channel.close();
     }
 
 }
@@ -0,0 +1,40 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assign a small integer code to each distinct string, in the order the strings are first seen. Used to store
+ * repeated values (such as locations) as ints in columnar and binary representations of the model.
+ */
+public class CodeDictionary {
+    public static final int NOT_FOUND = -1;
+
+    private Map<String, Integer> codes = new HashMap<String, Integer>();
+    private List<String> values = new ArrayList<String>();
+
+    public int findOrAddCode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    public int getCode(String value) {
+        Integer code = codes.get(value);
+        return code == null ? NOT_FOUND : code;
+    }
+
+    public String getValue(int code) {
+        return values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
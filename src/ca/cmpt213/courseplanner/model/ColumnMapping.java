@@ -0,0 +1,158 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Map the columns of a data file to the fields of a course section, using the names in the file's header row. The
+ * column numbers are resolved once per file, so each row's values are then read directly by column number.
+ *
+ * Files whose header names none of the known columns use the default layout of CSVFileLine.
+ */
+public class ColumnMapping {
+    public static final int MISSING = -1;
+
+    private static final String NAME_SEMESTER = "STRM";
+    private static final String NAME_SUBJECT = "SUBJECT";
+    private static final String NAME_CATALOG_NUMBER = "CATALOG_NBR";
+    private static final String NAME_LOCATION = "LOCATION";
+    private static final String NAME_ENROLLMENT_CAP = "ENRL_CAP";
+    private static final String NAME_COMPONENT = "SSR_COMPONENT";
+    private static final String NAME_ENROLLMENT_TOTAL = "ENRL_TOT";
+    private static final String NAME_INSTRUCTOR = "INSTRUCTORS";
+
+    private static final ColumnMapping DEFAULT_MAPPING = new ColumnMapping(
+            CSVFileLine.COLUMN_SEMESTER,
+            CSVFileLine.COLUMN_SUBJECT,
+            CSVFileLine.COLUMN_CATALOG_NUMBER,
+            CSVFileLine.COLUMN_LOCATION,
+            CSVFileLine.COLUMN_ENROLLMENT_CAP,
+            CSVFileLine.COLUMN_COMPONENT,
+            CSVFileLine.COLUMN_ENROLLMENT_TOTAL,
+            CSVFileLine.COLUMN_INSTRUCTOR,
+            CSVFileLine.COLUMN_INSTRUCTOR);
+
+    private final int semesterColumn;
+    private final int subjectColumn;
+    private final int catalogNumberColumn;
+    private final int locationColumn;
+    private final int enrollmentCapColumn;
+    private final int componentColumn;
+    private final int enrollmentTotalColumn;
+    private final int instructorColumn;
+    private final int lastColumn;
+
+    private ColumnMapping(int semesterColumn, int subjectColumn, int catalogNumberColumn, int locationColumn,
+                          int enrollmentCapColumn, int componentColumn, int enrollmentTotalColumn,
+                          int instructorColumn, int lastColumn) {
+        this.semesterColumn = semesterColumn;
+        this.subjectColumn = subjectColumn;
+        this.catalogNumberColumn = catalogNumberColumn;
+        this.locationColumn = locationColumn;
+        this.enrollmentCapColumn = enrollmentCapColumn;
+        this.componentColumn = componentColumn;
+        this.enrollmentTotalColumn = enrollmentTotalColumn;
+        this.instructorColumn = instructorColumn;
+        this.lastColumn = lastColumn;
+    }
+
+    public static ColumnMapping defaultMapping() {
+        return DEFAULT_MAPPING;
+    }
+
+    /**
+     * Resolve the columns from a file's header names. The instructor column is optional; all others are required.
+     */
+    public static ColumnMapping fromColumnNames(List<String> columnNames) throws IOException {
+        int semesterColumn = columnNames.indexOf(NAME_SEMESTER);
+        int subjectColumn = columnNames.indexOf(NAME_SUBJECT);
+        int catalogNumberColumn = columnNames.indexOf(NAME_CATALOG_NUMBER);
+        int locationColumn = columnNames.indexOf(NAME_LOCATION);
+        int enrollmentCapColumn = columnNames.indexOf(NAME_ENROLLMENT_CAP);
+        int componentColumn = columnNames.indexOf(NAME_COMPONENT);
+        int enrollmentTotalColumn = columnNames.indexOf(NAME_ENROLLMENT_TOTAL);
+        int instructorColumn = columnNames.indexOf(NAME_INSTRUCTOR);
+
+        int[] requiredColumns = {semesterColumn, subjectColumn, catalogNumberColumn, locationColumn,
+                enrollmentCapColumn, componentColumn, enrollmentTotalColumn};
+        int numMissing = 0;
+        for (int column : requiredColumns) {
+            if (column == MISSING) {
+                numMissing++;
+            }
+        }
+        if (numMissing == requiredColumns.length && instructorColumn == MISSING) {
+            return DEFAULT_MAPPING;
+        }
+        if (numMissing > 0) {
+            throw new IOException("Data file header " + columnNames + " is missing required columns.");
+        }
+
+        return new ColumnMapping(semesterColumn, subjectColumn, catalogNumberColumn, locationColumn,
+                enrollmentCapColumn, componentColumn, enrollmentTotalColumn,
+                instructorColumn, columnNames.size() - 1);
+    }
+
+    /**
+     * Read the column names from a header row (upper case, without surrounding spaces).
+     */
+    static List<String> readColumnNames(DataRow header) {
+        if (header == null) {
+            return Collections.emptyList();
+        }
+        List<String> columnNames = new ArrayList<String>(header.getNumberFields());
+        for (int column = 0; column < header.getNumberFields(); column++) {
+            columnNames.add(header.get(column).trim().toUpperCase());
+        }
+        return Collections.unmodifiableList(columnNames);
+    }
+
+    /*
+     * Column accessors
+     */
+    public int getSemesterCode(DataRow row) {
+        return row.getInt(semesterColumn);
+    }
+
+    public String getSubject(DataRow row) {
+        return row.getPooled(subjectColumn);
+    }
+
+    public String getCatalogNumber(DataRow row) {
+        return row.getPooled(catalogNumberColumn);
+    }
+
+    public String getLocation(DataRow row) {
+        return row.getPooled(locationColumn);
+    }
+
+    public int getEnrollmentCap(DataRow row) {
+        return row.getInt(enrollmentCapColumn);
+    }
+
+    public String getComponent(DataRow row) {
+        return row.getPooled(componentColumn);
+    }
+
+    public int getEnrollmentTotal(DataRow row) {
+        return row.getInt(enrollmentTotalColumn);
+    }
+
+    public String getInstructor(DataRow row) {
+        if (instructorColumn == MISSING) {
+            return "";
+        }
+        // Unquoted instructor lists in the last column spill over into the following columns.
+        if (instructorColumn == lastColumn) {
+            return row.getPooledRemaining(instructorColumn);
+        }
+        return row.getPooled(instructorColumn);
+    }
+
+    public boolean hasInstructors() {
+        return instructorColumn != MISSING;
+    }
+
+}
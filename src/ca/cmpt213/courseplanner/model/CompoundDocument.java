@@ -0,0 +1,286 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read named streams out of an OLE2 compound document, the container format of Excel 97-2003 (.xls) workbooks. Large
+ * streams are read one sector at a time as they are consumed, so they are never held in memory as a whole.
+ */
+public class CompoundDocument implements Closeable {
+    private static final long SIGNATURE = 0xE11AB1A1E011CFD0L;
+    private static final int HEADER_SIZE = 512;
+    private static final int NUM_HEADER_DIFAT_ENTRIES = 109;
+    private static final int END_OF_CHAIN = -2;
+    private static final int DIRECTORY_ENTRY_SIZE = 128;
+    private static final int DIRECTORY_NAME_SIZE = 64;
+    private static final int DIRECTORY_TYPE_STREAM = 2;
+    private static final int DIRECTORY_TYPE_ROOT = 5;
+    private static final int MIN_SECTOR_SHIFT = 7;
+    private static final int MAX_SECTOR_SHIFT = 16;
+
+    private FileChannel channel;
+    private int sectorSize;
+    private int miniSectorSize;
+    private int miniStreamCutoff;
+    private int[] fat;
+    private int[] miniFat;
+    private int rootStartSector;
+    private byte[] directory;
+
+    public CompoundDocument(File file) throws IOException {
+        channel = new FileInputStream(file).getChannel();
+        try {
+            readHeader(file);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void readHeader(File file) throws IOException {
+        ByteBuffer header = readAt(0, HEADER_SIZE);
+        if (header.getLong(0) != SIGNATURE) {
+            throw new IOException(file + " is not an Excel 97-2003 workbook.");
+        }
+        int sectorShift = header.getShort(30);
+        int miniSectorShift = header.getShort(32);
+        if (sectorShift < MIN_SECTOR_SHIFT || sectorShift > MAX_SECTOR_SHIFT || miniSectorShift < 0
+                || miniSectorShift > sectorShift) {
+            throw new IOException(file + " has an invalid sector size.");
+        }
+        sectorSize = 1 << sectorShift;
+        miniSectorSize = 1 << miniSectorShift;
+        int numFatSectors = header.getInt(44);
+        if (numFatSectors < 0 || numFatSectors > channel.size() / sectorSize) {
+            throw new IOException(file + " has an invalid sector allocation table size.");
+        }
+        int firstDirectorySector = header.getInt(48);
+        miniStreamCutoff = header.getInt(56);
+        int firstMiniFatSector = header.getInt(60);
+        int firstDifatSector = header.getInt(68);
+
+        fat = readFat(header, numFatSectors, firstDifatSector);
+        miniFat = toInts(readChain(firstMiniFatSector));
+        directory = readChain(firstDirectorySector);
+        rootStartSector = findEntry(DIRECTORY_TYPE_ROOT, null).getInt(116);
+    }
+
+    private int[] readFat(ByteBuffer header, int numFatSectors, int firstDifatSector) throws IOException {
+        int entriesPerSector = sectorSize / 4;
+        int[] fatSectors = new int[numFatSectors];
+        int found = 0;
+        for (int i = 0; i < NUM_HEADER_DIFAT_ENTRIES && found < numFatSectors; i++) {
+            fatSectors[found++] = header.getInt(76 + i * 4);
+        }
+        int difatSector = firstDifatSector;
+        for (int numDifatSectors = 0; found < numFatSectors && difatSector >= 0; numDifatSectors++) {
+            if (numDifatSectors > numFatSectors) {
+                throw new IOException("Sector allocation table list is cyclic.");
+            }
+            ByteBuffer difat = readSector(difatSector);
+            for (int i = 0; i < entriesPerSector - 1 && found < numFatSectors; i++) {
+                fatSectors[found++] = difat.getInt(i * 4);
+            }
+            difatSector = difat.getInt((entriesPerSector - 1) * 4);
+        }
+
+        int[] table = new int[numFatSectors * entriesPerSector];
+        for (int i = 0; i < numFatSectors; i++) {
+            ByteBuffer sector = readSector(fatSectors[i]);
+            for (int j = 0; j < entriesPerSector; j++) {
+                table[i * entriesPerSector + j] = sector.getInt(j * 4);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Open the stream with the given name (ignoring case).
+     */
+    public InputStream openStream(String name) throws IOException {
+        ByteBuffer entry = findEntry(DIRECTORY_TYPE_STREAM, name);
+        if (entry == null) {
+            throw new IOException("Stream " + name + " not found.");
+        }
+        int startSector = entry.getInt(116);
+        long size = entry.getInt(120) & 0xFFFFFFFFL;
+
+        if (size < miniStreamCutoff) {
+            return new ByteArrayInputStream(readMiniStream(startSector, (int) size));
+        }
+        return new SectorChainInputStream(startSector, size);
+    }
+
+    private ByteBuffer findEntry(int type, String name) {
+        ByteBuffer entries = ByteBuffer.wrap(directory).order(ByteOrder.LITTLE_ENDIAN);
+        for (int offset = 0; offset + DIRECTORY_ENTRY_SIZE <= directory.length; offset += DIRECTORY_ENTRY_SIZE) {
+            int nameLength = entries.getShort(offset + DIRECTORY_NAME_SIZE);
+            if (directory[offset + DIRECTORY_NAME_SIZE + 2] != type || nameLength < 2 || nameLength > DIRECTORY_NAME_SIZE) {
+                continue;
+            }
+            // Name is UTF-16LE, and the length includes its null terminator.
+            String entryName = new String(directory, offset, nameLength - 2, StandardCharsets.UTF_16LE);
+            if (name == null || entryName.equalsIgnoreCase(name)) {
+                ByteBuffer entry = ByteBuffer.wrap(directory, offset, DIRECTORY_ENTRY_SIZE).slice();
+                return entry.order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        return null;
+    }
+
+    private byte[] readMiniStream(int startMiniSector, int size) throws IOException {
+        // Small streams live in mini sectors inside the root entry's stream.
+        byte[] data = new byte[size];
+        int miniSectorsPerSector = sectorSize / miniSectorSize;
+        int miniSector = startMiniSector;
+        for (int position = 0; position < size; position += miniSectorSize) {
+            if (miniSector < 0 || miniSector >= miniFat.length) {
+                throw new IOException("Mini stream refers to missing mini sector " + miniSector + ".");
+            }
+            int sector = followChain(rootStartSector, miniSector / miniSectorsPerSector);
+            ByteBuffer sectorData = readSector(sector);
+            sectorData.position((miniSector % miniSectorsPerSector) * miniSectorSize);
+            sectorData.get(data, position, Math.min(miniSectorSize, size - position));
+            miniSector = miniFat[miniSector];
+        }
+        return data;
+    }
+
+    private int followChain(int startSector, int steps) throws IOException {
+        if (steps > fat.length) {
+            throw new IOException("Sector chain is longer than the document.");
+        }
+        int sector = startSector;
+        for (int i = 0; i < steps; i++) {
+            sector = nextSector(sector);
+        }
+        return sector;
+    }
+
+    // A chain can't have more sectors than the document, so a longer one must be cyclic.
+    private byte[] readChain(int startSector) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int numSectors = 0;
+        for (int sector = startSector; sector >= 0; sector = nextSector(sector)) {
+            if (++numSectors > fat.length) {
+                throw new IOException("Sector chain is cyclic.");
+            }
+            ByteBuffer sectorData = readSector(sector);
+            data.write(sectorData.array(), 0, sectorSize);
+        }
+        return data.toByteArray();
+    }
+
+    private int nextSector(int sector) throws IOException {
+        if (sector < 0 || sector >= fat.length) {
+            throw new IOException("Sector chain refers to missing sector " + sector + ".");
+        }
+        return fat[sector];
+    }
+
+    private static int[] toInts(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int[] ints = new int[bytes.length / 4];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = buffer.getInt(i * 4);
+        }
+        return ints;
+    }
+
+    private ByteBuffer readSector(int sector) throws IOException {
+        if (sector < 0) {
+            throw new IOException("Invalid sector " + sector + ".");
+        }
+        return readAt((long) (sector + 1) * sectorSize, sectorSize);
+    }
+
+    private ByteBuffer readAt(long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(buffer, position);
+        buffer.flip();
+        return buffer;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int bytesRead = channel.read(buffer, position);
+            if (bytesRead < 0) {
+                throw new IOException("Unexpected end of compound document.");
+            }
+            position += bytesRead;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Stream over a chain of sectors, reading each sector into a reused buffer as it is reached.
+     */
+    private class SectorChainInputStream extends InputStream {
+        private ByteBuffer sectorBuffer = ByteBuffer.allocate(sectorSize);
+        private int nextSector;
+        private long bytesLeft;
+        private int numSectorsRead = 0;
+
+        public SectorChainInputStream(int startSector, long size) {
+            nextSector = startSector;
+            bytesLeft = size;
+            sectorBuffer.limit(0);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fillSector()) {
+                return -1;
+            }
+            bytesLeft--;
+            return sectorBuffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] destination, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fillSector()) {
+                return -1;
+            }
+            int count = (int) Math.min(Math.min(length, sectorBuffer.remaining()), bytesLeft);
+            sectorBuffer.get(destination, offset, count);
+            bytesLeft -= count;
+            return count;
+        }
+
+        private boolean fillSector() throws IOException {
+            if (bytesLeft <= 0) {
+                return false;
+            }
+            if (!sectorBuffer.hasRemaining()) {
+                if (nextSector == END_OF_CHAIN || nextSector < 0) {
+                    throw new IOException("Stream ends before its recorded size.");
+                }
+                if (++numSectorsRead > fat.length) {
+                    throw new IOException("Sector chain is cyclic.");
+                }
+                sectorBuffer.clear();
+                readFully(sectorBuffer, (long) (nextSector + 1) * sectorSize);
+                sectorBuffer.flip();
+                nextSector = nextSector(nextSector);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, compressed set of ints from 0 up to a fixed size (such as the offering numbers of an OfferingIndex). The
+ * bits are stored as 64-bit words, with each run of all-zero or all-one words stored as a single count, so bitmaps of
+ * clustered values (such as all offerings of one department) take a few words however large they are. AND, OR and
+ * NOT work directly on the compressed form.
+ *
+ * The encoding is a sequence of marker words, each followed by the literal words it counts. A marker holds the value
+ * of its fill run (bit 63), the fill length in words (bits 32-62) and the number of literal words after it (bits
+ * 0-31).
+ */
+public class CompressedBitmap {
+    private static final int WORD_BITS = 64;
+    private static final long ALL_ONES = -1L;
+    private static final long FILL_VALUE_BIT = 1L << 63;
+    private static final int FILL_LENGTH_SHIFT = 32;
+    private static final long MAX_FILL_LENGTH = 0x7FFFFFFFL;
+    private static final long LITERAL_COUNT_MASK = 0xFFFFFFFFL;
+    private static final int MAX_LITERAL_COUNT = Integer.MAX_VALUE;
+
+    private long[] words;
+    private int numWords;
+    private int size;
+    private int cardinality;
+
+    private CompressedBitmap(long[] words, int numWords, int size) {
+        this.words = words;
+        this.numWords = numWords;
+        this.size = size;
+        this.cardinality = countBits();
+    }
+
+    public static CompressedBitmap empty(int size) {
+        return new Builder(size).build();
+    }
+
+    public static CompressedBitmap full(int size) {
+        Builder builder = new Builder(size);
+        builder.addFill(ALL_ONES, size / WORD_BITS);
+        if (size % WORD_BITS != 0) {
+            builder.addWord(ALL_ONES >>> (WORD_BITS - size % WORD_BITS));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get the number of possible values: the bitmap holds values from 0 to size - 1.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Get the number of compressed words stored, a measure of the memory used.
+     */
+    public int getCompressedWordCount() {
+        return numWords;
+    }
+
+    private int countBits() {
+        int count = 0;
+        for (int position = 0; position < numWords; ) {
+            long marker = words[position];
+            if ((marker & FILL_VALUE_BIT) != 0) {
+                count += fillLength(marker) * WORD_BITS;
+            }
+            int numLiterals = literalCount(marker);
+            for (int i = 1; i <= numLiterals; i++) {
+                count += Long.bitCount(words[position + i]);
+            }
+            position += 1 + numLiterals;
+        }
+        return count;
+    }
+
+    /*
+     * Set operations
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        return combine(other, Operation.AND);
+    }
+
+    public CompressedBitmap or(CompressedBitmap other) {
+        return combine(other, Operation.OR);
+    }
+
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        return combine(other, Operation.AND_NOT);
+    }
+
+    public CompressedBitmap not() {
+        return full(size).andNot(this);
+    }
+
+    /**
+     * Count the values in both bitmaps, without building their intersection.
+     */
+    public int andCardinality(CompressedBitmap other) {
+        int count = 0;
+        Cursor first = new Cursor(this);
+        Cursor second = new Cursor(other);
+        while (!first.isDone() && !second.isDone()) {
+            if (first.isFill() && second.isFill()) {
+                int length = Math.min(first.runLength(), second.runLength());
+                if ((first.word() & second.word()) != 0) {
+                    count += length * WORD_BITS;
+                }
+                first.advance(length);
+                second.advance(length);
+            } else if (first.isZeroFill() || second.isZeroFill()) {
+                // Skip the other bitmap's literals under a zero fill.
+                int length = Math.min(first.runLength(), second.runLength());
+                first.advance(length);
+                second.advance(length);
+            } else {
+                count += Long.bitCount(first.word() & second.word());
+                first.advance(1);
+                second.advance(1);
+            }
+        }
+        return count;
+    }
+
+    private enum Operation {
+        AND, OR, AND_NOT;
+
+        long apply(long first, long second) {
+            switch (this) {
+            case AND:
+                return first & second;
+            case OR:
+                return first | second;
+            default:
+                return first & ~second;
+            }
+        }
+    }
+
+    // Runs that are fills in both bitmaps are combined in one step; everything else word by word.
+    private CompressedBitmap combine(CompressedBitmap other, Operation operation) {
+        Builder result = new Builder(Math.max(size, other.size));
+        Cursor first = new Cursor(this);
+        Cursor second = new Cursor(other);
+        while (!first.isDone() || !second.isDone()) {
+            if (first.isFill() && second.isFill()) {
+                int length = Math.min(first.runLength(), second.runLength());
+                result.addFill(operation.apply(first.word(), second.word()), length);
+                first.advance(length);
+                second.advance(length);
+            } else {
+                result.addWord(operation.apply(first.word(), second.word()));
+                first.advance(1);
+                second.advance(1);
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * Read the words of a bitmap one run at a time. Past the end, a bitmap reads as an endless run of zero words.
+     */
+    private static class Cursor {
+        private CompressedBitmap bitmap;
+        private int nextMarker = 0;
+        private int fillLeft = 0;
+        private long fillWord = 0;
+        private int literalPosition = 0;
+        private int literalsLeft = 0;
+
+        Cursor(CompressedBitmap bitmap) {
+            this.bitmap = bitmap;
+            loadNextRun();
+        }
+
+        private void loadNextRun() {
+            while (fillLeft == 0 && literalsLeft == 0 && nextMarker < bitmap.numWords) {
+                long marker = bitmap.words[nextMarker];
+                fillWord = (marker & FILL_VALUE_BIT) != 0 ? ALL_ONES : 0;
+                fillLeft = fillLength(marker);
+                literalsLeft = literalCount(marker);
+                literalPosition = nextMarker + 1;
+                nextMarker = literalPosition + literalsLeft;
+            }
+        }
+
+        boolean isDone() {
+            return fillLeft == 0 && literalsLeft == 0;
+        }
+
+        boolean isFill() {
+            return fillLeft > 0 || isDone();
+        }
+
+        boolean isZeroFill() {
+            return isFill() && word() == 0;
+        }
+
+        int runLength() {
+            if (isDone()) {
+                return Integer.MAX_VALUE;
+            }
+            return fillLeft > 0 ? fillLeft : literalsLeft;
+        }
+
+        long word() {
+            if (fillLeft > 0) {
+                return fillWord;
+            }
+            return isDone() ? 0 : bitmap.words[literalPosition];
+        }
+
+        void advance(int numWords) {
+            if (isDone()) {
+                return;
+            }
+            if (fillLeft > 0) {
+                fillLeft -= numWords;
+            } else {
+                literalPosition += numWords;
+                literalsLeft -= numWords;
+            }
+            loadNextRun();
+        }
+    }
+
+    /*
+     * Reading values
+     */
+    public int[] toArray() {
+        int[] values = new int[cardinality];
+        int count = 0;
+        int wordIndex = 0;
+        for (int position = 0; position < numWords; ) {
+            long marker = words[position];
+            int fillLength = fillLength(marker);
+            if ((marker & FILL_VALUE_BIT) != 0) {
+                for (int value = wordIndex * WORD_BITS; value < (wordIndex + fillLength) * WORD_BITS; value++) {
+                    values[count++] = value;
+                }
+            }
+            wordIndex += fillLength;
+
+            int numLiterals = literalCount(marker);
+            for (int i = 1; i <= numLiterals; i++) {
+                long word = words[position + i];
+                while (word != 0) {
+                    values[count++] = wordIndex * WORD_BITS + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+                wordIndex++;
+            }
+            position += 1 + numLiterals;
+        }
+        return values;
+    }
+
+    private static int fillLength(long marker) {
+        return (int) ((marker >>> FILL_LENGTH_SHIFT) & MAX_FILL_LENGTH);
+    }
+
+    private static int literalCount(long marker) {
+        return (int) (marker & LITERAL_COUNT_MASK);
+    }
+
+    /**
+     * Build a CompressedBitmap by adding its values in increasing order.
+     */
+    public static class Builder {
+        private static final int INITIAL_CAPACITY = 4;
+
+        private int size;
+        private long[] words = new long[INITIAL_CAPACITY];
+        private int numWords = 0;
+        private int markerPosition = -1;
+        private int encodedLength = 0;
+        private int pendingWordIndex = 0;
+        private long pendingWord = 0;
+
+        public Builder(int size) {
+            this.size = size;
+        }
+
+        /**
+         * Add a value, which must not be less than any value already added.
+         */
+        public void add(int value) {
+            if (value < 0 || value >= size) {
+                throw new IllegalArgumentException("Value " + value + " is outside the bitmap's size " + size);
+            }
+            int wordIndex = value / WORD_BITS;
+            if (wordIndex < pendingWordIndex) {
+                throw new IllegalArgumentException("Values must be added in increasing order.");
+            }
+            if (wordIndex > pendingWordIndex) {
+                addPendingWord();
+                pendingWordIndex = wordIndex;
+            }
+            pendingWord |= 1L << (value % WORD_BITS);
+        }
+
+        private void addPendingWord() {
+            if (pendingWord != 0) {
+                addFill(0, pendingWordIndex - encodedLength);
+                addWord(pendingWord);
+                pendingWord = 0;
+            }
+        }
+
+        public CompressedBitmap build() {
+            addPendingWord();
+            int sizeInWords = (size + WORD_BITS - 1) / WORD_BITS;
+            addFill(0, sizeInWords - encodedLength);
+            return new CompressedBitmap(Arrays.copyOf(words, numWords), numWords, size);
+        }
+
+        // Used directly when combining bitmaps, which are built a word at a time rather than by add().
+        void addWord(long word) {
+            if (word == 0 || word == ALL_ONES) {
+                addFill(word, 1);
+                return;
+            }
+            if (markerPosition < 0 || literalCount(words[markerPosition]) == MAX_LITERAL_COUNT) {
+                appendMarker(0, 0);
+            }
+            append(word);
+            words[markerPosition]++;
+            encodedLength++;
+        }
+
+        void addFill(long fillWord, int length) {
+            if (length <= 0) {
+                return;
+            }
+            boolean isOnes = fillWord != 0;
+            long marker = markerPosition < 0 ? 0 : words[markerPosition];
+            boolean canExtend = markerPosition >= 0
+                    && literalCount(marker) == 0
+                    && (fillLength(marker) == 0 || ((marker & FILL_VALUE_BIT) != 0) == isOnes)
+                    && fillLength(marker) + (long) length <= MAX_FILL_LENGTH;
+            if (canExtend) {
+                long newLength = fillLength(marker) + (long) length;
+                words[markerPosition] = (isOnes ? FILL_VALUE_BIT : 0) | (newLength << FILL_LENGTH_SHIFT);
+            } else {
+                appendMarker(isOnes ? FILL_VALUE_BIT : 0, length);
+            }
+            encodedLength += length;
+        }
+
+        private void appendMarker(long fillValueBit, long fillLength) {
+            markerPosition = numWords;
+            append(fillValueBit | (fillLength << FILL_LENGTH_SHIFT));
+        }
+
+        private void append(long word) {
+            if (numWords == words.length) {
+                words = Arrays.copyOf(words, numWords * 2);
+            }
+            words[numWords++] = word;
+        }
+    }
+
+}
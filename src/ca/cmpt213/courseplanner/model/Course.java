@@ -2,22 +2,61 @@ package ca.cmpt213.courseplanner.model;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Store information about a course and manage its course offerings.
+ * Store information about a course and manage its course offerings. Offerings are indexed by semester and location and
+ * appended unsorted; they are sorted and become visible through offerings() when the model is committed.
+ *
+ * Publishing also groups the offerings by semester in a dense table (one slot per term of each year from the first
+ * offering to the last), so the offerings of any semester are found without a search. When there are new sections,
+ * it stores the sections of all the offerings in a new SectionColumnStore and computes the course's CourseStatistics
+ * from it.
  */
 public class Course implements Comparable<Course> {
     private final static int MAX_UNDER_GRAD_NUMBER = 499;
 
     private Department department;
     private String catalogNumber;
+    private int courseNumber;
+    private Map<OfferingKey, CourseOffering> offeringsByKey = new HashMap<OfferingKey, CourseOffering>();
     private List<CourseOffering> offerings = new ArrayList<CourseOffering>();
+    private List<CourseOffering> publishedOfferings = Collections.emptyList();
+    private boolean hasChanged = false;
+    private boolean hasNewSections = false;
+
+    // Published offerings by semester: [(year - firstYear) * Semester.NUM_TERMS + term index].
+    private int firstYear = 0;
+    private List<List<CourseOffering>> offeringsBySemester = Collections.emptyList();
+    private SectionColumnStore sectionColumns = SectionColumnStore.EMPTY;
+    private CourseStatistics statistics = CourseStatistics.EMPTY;
 
     public Course(Department department, String catalogNumber) {
         this.department = department;
         this.catalogNumber = catalogNumber;
+        this.courseNumber = parseCourseNumber(catalogNumber);
+    }
+
+    // The course number is the leading digits of the catalog number (such as 120 for "120W"), or 0 if there are none.
+    private static int parseCourseNumber(String catalogNumber) {
+        long number = 0;
+        for (int i = 0; i < catalogNumber.length(); i++) {
+            int digit = Character.digit(catalogNumber.charAt(i), 10);
+            if (digit < 0) {
+                break;
+            }
+            number = number * 10 + digit;
+            if (number > Integer.MAX_VALUE) {
+                return 0;
+            }
+        }
+        return (int) number;
+    }
+
+    public Department getDepartment() {
+        return department;
     }
 
     public String getCatalogNumber() {
@@ -30,43 +69,156 @@ public class Course implements Comparable<Course> {
         offering.addSection(componentType, enrollmentCap, enrollmentTotal, instructor);
     }
 
-    private CourseOffering findOrAddNewOffering(Semester semester, String location) {
-        for (CourseOffering offering : offerings) {
-            if (offering.matches(semester, location)) {
-                return offering;
-            }
+    CourseOffering findOrAddNewOffering(Semester semester, String location) {
+        hasNewSections = true;
+        OfferingKey key = new OfferingKey(semester.getSemesterCode(), location);
+        CourseOffering offering = offeringsByKey.get(key);
+        if (offering == null) {
+            offering = new CourseOffering(this, semester, location);
+            offeringsByKey.put(key, offering);
+            offerings.add(offering);
+            hasChanged = true;
+        }
+        return offering;
+    }
+
+    void mergeFrom(Course other, StringPool pool) {
+        for (CourseOffering otherOffering : other.offerings) {
+            String location = pool.intern(otherOffering.getLocation());
+            CourseOffering offering = findOrAddNewOffering(otherOffering.getSemester(), location);
+            offering.mergeFrom(otherOffering, pool);
         }
-        CourseOffering newOffering = new CourseOffering(this, semester, location);
-        offerings.add(newOffering);
-        Collections.sort(offerings);
-        return newOffering;
     }
 
     public Iterable<CourseOffering> offerings() {
-        return new Iterable<CourseOffering>() {
-            @Override
-            public Iterator<CourseOffering> iterator() {
-                return Collections.unmodifiableList(offerings).iterator();
+        return publishedOfferings;
+    }
+
+    void publish() {
+        if (hasChanged) {
+            Collections.sort(offerings);
+            publishedOfferings = Collections.unmodifiableList(new ArrayList<CourseOffering>(offerings));
+            groupOfferingsBySemester();
+            hasChanged = false;
+        }
+        // Sections may be added to existing offerings (or merged into them) without changing the offering list.
+        if (hasNewSections) {
+            sectionColumns = SectionColumnStore.build(publishedOfferings);
+            for (int i = 0; i < publishedOfferings.size(); i++) {
+                publishedOfferings.get(i).publish(sectionColumns, i);
             }
+            statistics = CourseStatistics.build(sectionColumns, publishedOfferings);
+            hasNewSections = false;
+        }
+    }
+
+    /**
+     * Throw away the offerings and sections added since the last publish.
+     */
+    void discardChanges() {
+        if (hasChanged) {
+            offerings = new ArrayList<CourseOffering>(publishedOfferings);
+            offeringsByKey.clear();
+            for (CourseOffering offering : offerings) {
+                offeringsByKey.put(new OfferingKey(offering.getSemester().getSemesterCode(), offering.getLocation()),
+                        offering);
+            }
+            hasChanged = false;
+        }
+        for (CourseOffering offering : offerings) {
+            offering.discardChanges();
+        }
+        hasNewSections = false;
+    }
+
+    // Offerings are sorted by semester, so each semester's offerings are a contiguous run of the published list.
+    private void groupOfferingsBySemester() {
+        List<CourseOffering> empty = Collections.emptyList();
+        int numOfferings = publishedOfferings.size();
+        firstYear = publishedOfferings.get(0).getSemester().getYear();
+        int lastYear = publishedOfferings.get(numOfferings - 1).getSemester().getYear();
+        List<List<CourseOffering>> slots = new ArrayList<List<CourseOffering>>(
+                Collections.nCopies((lastYear - firstYear + 1) * Semester.NUM_TERMS, empty));
 
-        };
+        int start = 0;
+        while (start < numOfferings) {
+            Semester semester = publishedOfferings.get(start).getSemester();
+            int end = start + 1;
+            while (end < numOfferings && publishedOfferings.get(end).getSemester().equals(semester)) {
+                end++;
+            }
+            int termIndex = semester.getTermIndex();
+            if (termIndex >= 0) {
+                slots.set((semester.getYear() - firstYear) * Semester.NUM_TERMS + termIndex,
+                        publishedOfferings.subList(start, end));
+            }
+            start = end;
+        }
+        offeringsBySemester = Collections.unmodifiableList(slots);
+    }
+
+    public boolean hasOfferings() {
+        return !publishedOfferings.isEmpty();
+    }
+
+    /**
+     * Get the year of the first offering (if there are any offerings).
+     */
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    /**
+     * Get the year of the last offering (if there are any offerings).
+     */
+    public int getLastYear() {
+        return firstYear + offeringsBySemester.size() / Semester.NUM_TERMS - 1;
+    }
+
+    /**
+     * Get the offerings in one term (by its Semester term index) of a year, sorted by location; the list is empty if
+     * there are none.
+     */
+    public List<CourseOffering> getOfferingsIn(int year, int termIndex) {
+        int slot = (year - firstYear) * Semester.NUM_TERMS + termIndex;
+        if (year < firstYear || termIndex < 0 || termIndex >= Semester.NUM_TERMS || slot >= offeringsBySemester.size()) {
+            return Collections.emptyList();
+        }
+        return offeringsBySemester.get(slot);
+    }
+
+    public List<CourseOffering> getOfferingsIn(Semester semester) {
+        return getOfferingsIn(semester.getYear(), semester.getTermIndex());
+    }
+
+    /**
+     * Get the sections of the published offerings, numbered as in offerings().
+     */
+    SectionColumnStore getSectionColumns() {
+        return sectionColumns;
+    }
+
+    /**
+     * Get the totals over all published offerings of this course.
+     */
+    public CourseStatistics getStatistics() {
+        return statistics;
+    }
+
+    public int getCourseNumber() {
+        return courseNumber;
     }
 
     public boolean isGrad() {
-        return getCourseNumberAsInt() > MAX_UNDER_GRAD_NUMBER;
+        return !isUndergradNumber(courseNumber);
     }
 
     public boolean isUndergrad() {
-        return getCourseNumberAsInt() <= MAX_UNDER_GRAD_NUMBER;
+        return isUndergradNumber(courseNumber);
     }
 
-    private int getCourseNumberAsInt() {
-        try {
-            return Integer.valueOf("0" + catalogNumber.replaceAll("(\\d*).*", "$1"));
-        } catch (NumberFormatException e) {
-            e.printStackTrace();
-            return 0;
-        }
+    static boolean isUndergradNumber(int courseNumber) {
+        return courseNumber <= MAX_UNDER_GRAD_NUMBER;
     }
 
     public boolean matchesCatalogNumber(String catalogNumber) {
@@ -87,4 +239,31 @@ public class Course implements Comparable<Course> {
         return department.getName() + " " + catalogNumber;
     }
 
+    /**
+     * Hash key identifying an offering by its semester and location.
+     */
+    private static class OfferingKey {
+        private int semesterCode;
+        private String location;
+
+        public OfferingKey(int semesterCode, String location) {
+            this.semesterCode = semesterCode;
+            this.location = location;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof OfferingKey)) {
+                return false;
+            }
+            OfferingKey otherKey = (OfferingKey) other;
+            return semesterCode == otherKey.semesterCode && location.equals(otherKey.location);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * semesterCode + location.hashCode();
+        }
+    }
+
 }
@@ -1,7 +1,10 @@
 package ca.cmpt213.courseplanner.model;
 
+import java.util.Objects;
+
 /**
- * Strategy object for checking if a department or course matches the configuration of this filter.
+ * Strategy object for checking if a department or course matches the configuration of this filter. Filters are values:
+ * equal filters match the same courses, so their results may be cached.
  */
 public class CourseFilter {
     private String department;
@@ -19,9 +22,32 @@ public class CourseFilter {
     }
 
     public boolean matchesCourse(Course course) {
-        boolean matchesAsUndergrad = includeUndergrad && course.isUndergrad();
-        boolean matchesAsGrad = includeGrad && course.isGrad();
+        return matchesCourseNumber(course.getCourseNumber());
+    }
+
+    public boolean matchesCourseNumber(int courseNumber) {
+        boolean matchesAsUndergrad = includeUndergrad && Course.isUndergradNumber(courseNumber);
+        boolean matchesAsGrad = includeGrad && !Course.isUndergradNumber(courseNumber);
 
         return matchesAsUndergrad || matchesAsGrad;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CourseFilter)) {
+            return false;
+        }
+        CourseFilter otherFilter = (CourseFilter) other;
+        return Objects.equals(department, otherFilter.department)
+                && includeUndergrad == otherFilter.includeUndergrad
+                && includeGrad == otherFilter.includeGrad;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(department, includeUndergrad, includeGrad);
+    }
 }
@@ -1,14 +1,23 @@
 package ca.cmpt213.courseplanner.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Store the selected course filter, apply it to classes in the model, and notify observers when it changes.
+ * Store the selected course filter, apply it to classes in the model, and notify observers when it changes. The
+ * courses matching each filter are cached (there are only a few filters per department) until the model's data
+ * changes, so switching back to an earlier filter costs nothing. The cache records which published data it was built
+ * from, so it is never used after any change to the data, however the data was loaded.
  */
 public class CourseFilterManager extends ModelObservableImpl {
     private Model model;
     private CourseFilter filter;
+    private Map<CourseFilter, List<Course>> filteredCoursesCache = new HashMap<CourseFilter, List<Course>>();
+    private DepartmentManager cachedDepartments;
+    private int cachedNumCommits;
 
     public CourseFilterManager(Model model) {
         this.model = model;
@@ -23,24 +32,42 @@ public class CourseFilterManager extends ModelObservableImpl {
         return filter;
     }
 
+    /**
+     * Get the courses matching the current filter, as an unmodifiable list.
+     */
     public List<Course> getFilteredCourses() {
+        if (filter == null) {
+            return Collections.emptyList();
+        }
+        DepartmentManager departments = model.getDepartmentManager();
+        if (departments != cachedDepartments || departments.getNumCommits() != cachedNumCommits) {
+            filteredCoursesCache.clear();
+            cachedDepartments = departments;
+            cachedNumCommits = departments.getNumCommits();
+        }
+        List<Course> courses = filteredCoursesCache.get(filter);
+        if (courses == null) {
+            courses = Collections.unmodifiableList(findFilteredCourses(filter));
+            filteredCoursesCache.put(filter, courses);
+        }
+        return courses;
+    }
+
+    private List<Course> findFilteredCourses(CourseFilter filter) {
         List<Course> courses = new ArrayList<Course>();
-        if (filter != null) {
-            for (Department department : model.departments()) {
-                if (!filter.matchesDepartment(department)) {
-                    continue;
-                }
-
-                for (Course course : department.courses()) {
-                    if (!filter.matchesCourse(course)) {
-                        continue;
-                    }
-
-                    courses.add(course);
-                }
+        for (Department department : model.departments()) {
+            if (filter.matchesDepartment(department)) {
+                department.addFilteredCourses(filter, courses);
             }
         }
         return courses;
     }
 
+    /**
+     * Notify observers that the filtered courses have changed, as the model's data has changed.
+     */
+    public void dataChanged() {
+        notifyListeners();
+    }
+
 }
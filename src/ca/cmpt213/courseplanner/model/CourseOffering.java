@@ -5,14 +5,20 @@ import java.util.Collections;
 import java.util.List;
 
 /**
- * Store information about a single course offering.
+ * Store information about a single course offering. Its sections and instructors are copied on write: changes during a
+ * bulk load are made to private copies, which replace the published data when the model is committed, so lists
+ * already handed out never change. Published sections are kept only in the course's SectionColumnStore.
  */
 public class CourseOffering implements Comparable<CourseOffering> {
     private Course course;
     private Semester semester;
     private String location;
-    private List<String> instructors = new ArrayList<>();
-    private List<OfferingSection> sections = new ArrayList<OfferingSection>();
+    // Copies being changed by a bulk load, or null when unchanged since the last publish.
+    private List<String> instructors;
+    private List<OfferingSection> sections;
+    private List<String> publishedInstructors = Collections.emptyList();
+    // A view of this offering's rows in the course's SectionColumnStore.
+    private List<OfferingSection> publishedSections = Collections.emptyList();
 
     public CourseOffering(Course course, Semester semester, String location) {
         this.course = course;
@@ -33,39 +39,114 @@ public class CourseOffering implements Comparable<CourseOffering> {
     }
 
     public String getInstructors() {
-        String strInstructors = "";
-        for (String instructor : instructors) {
+        if (publishedInstructors.size() == 1) {
+            return publishedInstructors.get(0);
+        }
+        StringBuilder strInstructors = new StringBuilder();
+        for (String instructor : publishedInstructors) {
             if (strInstructors.length() > 0) {
-                strInstructors += ", ";
+                strInstructors.append(", ");
             }
-            strInstructors += instructor;
+            strInstructors.append(instructor);
+        }
+        return strInstructors.toString();
+    }
+
+    public List<String> instructors() {
+        return publishedInstructors;
+    }
+
+    void addInstructor(String instructor) {
+        if (instructor != null && instructor.length() > 0 && !editInstructors().contains(instructor)) {
+            instructors.add(instructor);
         }
-        return strInstructors;
+    }
+
+    private List<String> editInstructors() {
+        if (instructors == null) {
+            instructors = new ArrayList<String>(publishedInstructors);
+        }
+        return instructors;
+    }
+
+    // The store makes new section objects as they are read, so the copies may be edited.
+    private List<OfferingSection> editSections() {
+        if (sections == null) {
+            sections = new ArrayList<OfferingSection>(publishedSections.size() + 1);
+            sections.addAll(publishedSections);
+        }
+        return sections;
     }
 
     public void addSection(String sectionType, int enrollmentCap, int enrollmentTotal, String instructor) {
-        for (OfferingSection component : sections) {
+        // Types are pooled when loaded, so equals() normally succeeds on its identity check.
+        for (OfferingSection component : editSections()) {
             if (component.getType().equals(sectionType)) {
                 component.addToSection(enrollmentCap, enrollmentTotal);
                 return;
             }
         }
 
-        if (instructor != null && instructor.length() > 0 && !instructors.contains(instructor)) {
-            instructors.add(instructor);
-        }
+        addInstructor(instructor);
 
-        OfferingSection newComponent = new OfferingSection(sectionType, enrollmentCap, enrollmentTotal);
+        OfferingSection newComponent = new OfferingSection(sectionType, enrollmentCap, enrollmentTotal, instructor);
         sections.add(newComponent);
+    }
+
+    /**
+     * Add the sections of another offering (of the same course, semester and location) as if its data rows had been
+     * added to this offering after this offering's own rows.
+     */
+    void mergeFrom(CourseOffering other, StringPool pool) {
+        for (OfferingSection section : other.sections == null ? other.publishedSections : other.sections) {
+            String type = pool.intern(section.getType());
+            String instructor = pool.intern(section.getInstructor());
+            addSection(type, section.getEnrollmentCap(), section.getEnrollmentTotal(), instructor);
+        }
+    }
+
+    public List<OfferingSection> components() {
+        return publishedSections;
+    }
+
+    /**
+     * Get the sections as they will be published (sorted by type), for the course to store them.
+     */
+    List<OfferingSection> sortCurrentSections() {
+        if (sections == null) {
+            return components();
+        }
         Collections.sort(sections);
+        return sections;
+    }
+
+    /**
+     * Publish the changes, with the sections now read from the course's new store.
+     */
+    void publish(SectionColumnStore store, int index) {
+        publishedSections = store.getSections(index);
+        sections = null;
+        publishInstructors();
+    }
+
+    private void publishInstructors() {
+        if (instructors != null) {
+            publishedInstructors = Collections.unmodifiableList(instructors);
+            instructors = null;
+        }
     }
 
-    public Iterable<OfferingSection> components() {
-        return Collections.unmodifiableList(sections);
+    /**
+     * Throw away the changes made since the last publish.
+     */
+    void discardChanges() {
+        sections = null;
+        instructors = null;
     }
 
     public boolean matches(Semester semester, String location) {
-        return getSemester().equals(semester) && getLocation().equals(location);
+        // Locations are pooled when loaded, so check identity before comparing contents.
+        return getSemester().equals(semester) && (this.location == location || this.location.equals(location));
     }
 
     @Override
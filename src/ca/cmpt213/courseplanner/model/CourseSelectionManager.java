@@ -1,7 +1,6 @@
 package ca.cmpt213.courseplanner.model;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -30,11 +29,10 @@ public class CourseSelectionManager extends ModelObservableImpl {
         List<CourseOffering> offeringList = new ArrayList<CourseOffering>();
 
         if (selectedCourse != null) {
+            // Offerings are already sorted when the model is committed.
             for (CourseOffering offering : selectedCourse.offerings()) {
                 offeringList.add(offering);
             }
-
-            Collections.sort(offeringList);
         }
         return offeringList;
     }
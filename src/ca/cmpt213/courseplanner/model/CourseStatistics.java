@@ -0,0 +1,175 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Totals over all the offerings of a course: offerings per term and per campus, enrollment and fill rate, and the same
+ * per component type. Offering enrollment counts each student once, in the offering's lecture (or its largest
+ * component), while the per-component totals cover every component. Computed once when the course is published, by
+ * scanning the columns of its SectionColumnStore, and stored in primitive arrays, so they can be shown without scanning
+ * the offerings. Campuses and component types are in alphabetical order.
+ */
+public class CourseStatistics {
+    static final CourseStatistics EMPTY =
+            build(SectionColumnStore.EMPTY, Collections.<CourseOffering> emptyList());
+
+    private int numOfferings;
+    private int[] offeringsPerTerm = new int[Semester.NUM_TERMS];
+    private int totalEnrollment;
+    private int totalCapacity;
+
+    private String[] campuses;
+    private int[] offeringsPerCampus;
+
+    private String[] componentTypes;
+    private int[] offeringsPerComponent;
+    private int[] enrollmentPerComponent;
+    private int[] capacityPerComponent;
+
+    private CourseStatistics() {
+    }
+
+    /**
+     * Total the offerings, whose sections are the offerings of the same number in the store.
+     */
+    static CourseStatistics build(SectionColumnStore sections, List<CourseOffering> offerings) {
+        CourseStatistics statistics = new CourseStatistics();
+        Map<String, int[]> campusTotals = new TreeMap<String, int[]>();
+
+        for (CourseOffering offering : offerings) {
+            statistics.numOfferings++;
+            int termIndex = offering.getSemester().getTermIndex();
+            if (termIndex >= 0) {
+                statistics.offeringsPerTerm[termIndex]++;
+            }
+            findOrAddTotals(campusTotals, offering.getLocation(), 1)[0]++;
+        }
+
+        // Component totals are summed by component code, then put in order of type.
+        int[][] totalsPerCode = new int[sections.getNumComponentTypes()][3];
+        for (int offering = 0; offering < sections.getNumOfferings(); offering++) {
+            int mainSection = sections.getMainSection(offering);
+            if (mainSection >= 0) {
+                statistics.totalEnrollment += sections.getEnrollmentTotal(mainSection);
+                statistics.totalCapacity += sections.getEnrollmentCap(mainSection);
+            }
+            for (int row = sections.getFirstSection(offering); row < sections.getEndSection(offering); row++) {
+                int[] totals = totalsPerCode[sections.getComponentCode(row)];
+                totals[0]++;
+                totals[1] += sections.getEnrollmentTotal(row);
+                totals[2] += sections.getEnrollmentCap(row);
+            }
+        }
+        Map<String, int[]> componentTotals = new TreeMap<String, int[]>();
+        for (int code = 0; code < totalsPerCode.length; code++) {
+            componentTotals.put(sections.getComponentTypeOfCode(code), totalsPerCode[code]);
+        }
+
+        statistics.campuses = campusTotals.keySet().toArray(new String[campusTotals.size()]);
+        statistics.offeringsPerCampus = column(campusTotals, 0);
+        statistics.componentTypes = componentTotals.keySet().toArray(new String[componentTotals.size()]);
+        statistics.offeringsPerComponent = column(componentTotals, 0);
+        statistics.enrollmentPerComponent = column(componentTotals, 1);
+        statistics.capacityPerComponent = column(componentTotals, 2);
+        return statistics;
+    }
+
+    private static int[] findOrAddTotals(Map<String, int[]> totalsByName, String name, int numTotals) {
+        int[] totals = totalsByName.get(name);
+        if (totals == null) {
+            totals = new int[numTotals];
+            totalsByName.put(name, totals);
+        }
+        return totals;
+    }
+
+    private static int[] column(Map<String, int[]> totalsByName, int index) {
+        int[] values = new int[totalsByName.size()];
+        int i = 0;
+        for (int[] totals : totalsByName.values()) {
+            values[i++] = totals[index];
+        }
+        return values;
+    }
+
+    private static double ratio(int numerator, int denominator) {
+        return denominator == 0 ? 0 : (double) numerator / denominator;
+    }
+
+    /*
+     * Offerings
+     */
+    public int getNumOfferings() {
+        return numOfferings;
+    }
+
+    /**
+     * Get the number of offerings in a term (by its Semester term index) over all years.
+     */
+    public int getOfferingCountInTerm(int termIndex) {
+        return offeringsPerTerm[termIndex];
+    }
+
+    public int getNumCampuses() {
+        return campuses.length;
+    }
+
+    public String getCampus(int campusIndex) {
+        return campuses[campusIndex];
+    }
+
+    public int getOfferingCountAtCampus(int campusIndex) {
+        return offeringsPerCampus[campusIndex];
+    }
+
+    /*
+     * Enrollment (in the main component of each offering). Fill rates are enrollment divided by capacity, or 0 with no
+     * capacity.
+     */
+    public int getTotalEnrollment() {
+        return totalEnrollment;
+    }
+
+    public int getTotalCapacity() {
+        return totalCapacity;
+    }
+
+    public double getAverageEnrollment() {
+        return ratio(totalEnrollment, numOfferings);
+    }
+
+    public double getFillRate() {
+        return ratio(totalEnrollment, totalCapacity);
+    }
+
+    /*
+     * Component types (such as LEC or LAB), totalled over every offering having them.
+     */
+    public int getNumComponentTypes() {
+        return componentTypes.length;
+    }
+
+    public String getComponentType(int componentIndex) {
+        return componentTypes[componentIndex];
+    }
+
+    public int getOfferingCountWithComponent(int componentIndex) {
+        return offeringsPerComponent[componentIndex];
+    }
+
+    public int getComponentEnrollment(int componentIndex) {
+        return enrollmentPerComponent[componentIndex];
+    }
+
+    public int getComponentCapacity(int componentIndex) {
+        return capacityPerComponent[componentIndex];
+    }
+
+    public double getComponentFillRate(int componentIndex) {
+        return ratio(enrollmentPerComponent[componentIndex], capacityPerComponent[componentIndex]);
+    }
+
+}
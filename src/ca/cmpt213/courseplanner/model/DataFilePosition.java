@@ -0,0 +1,66 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Remember how far a CSV data file has been loaded: the byte offset just past the last row loaded, a hash of the bytes
+ * just before that offset, and the file's column mapping. The file may then be checked to see whether it has only had
+ * rows appended since, in which case just the new rows need to be loaded.
+ */
+public class DataFilePosition {
+    private static final int HASHED_BYTES = 4 * 1024;
+
+    private long offset;
+    private long hash;
+    private ColumnMapping columns;
+
+    private DataFilePosition(long offset, long hash, ColumnMapping columns) {
+        this.offset = offset;
+        this.hash = hash;
+        this.columns = columns;
+    }
+
+    public static DataFilePosition at(File file, long offset, ColumnMapping columns) throws IOException {
+        return new DataFilePosition(offset, hashBytesBefore(file, offset), columns);
+    }
+
+    private static long hashBytesBefore(File file, long offset) throws IOException {
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            long start = Math.max(0, offset - HASHED_BYTES);
+            ByteBuffer bytes = ByteBuffer.allocate((int) (offset - start));
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, start + bytes.position()) < 0) {
+                    throw new IOException("Data file " + file + " is shorter than expected.");
+                }
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.array(), 0, bytes.limit());
+            return crc.getValue();
+        }
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public ColumnMapping getColumns() {
+        return columns;
+    }
+
+    /**
+     * Check whether the file still holds the same data up to this position, so any later data was appended.
+     */
+    public boolean isContinuedBy(File file) throws IOException {
+        return file.length() >= offset && hashBytesBefore(file, offset) == hash;
+    }
+
+    public boolean hasDataAfter(File file) {
+        return file.length() > offset;
+    }
+
+}
@@ -0,0 +1,103 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watch a data file for changes on a background thread, and notify listeners (on that thread) once the file has been
+ * created or modified. A burst of changes, such as a large file being written, is reported once after the file has
+ * been quiet for a moment.
+ */
+public class DataFileWatcher extends ModelObservableImpl implements Closeable {
+    private static final long QUIET_PERIOD_MS = 500;
+
+    private Path directory;
+    private Path fileName;
+    private WatchService watchService;
+    private Thread thread;
+
+    public DataFileWatcher(File file) throws IOException {
+        Path path = file.getAbsoluteFile().toPath();
+        directory = path.getParent();
+        fileName = path.getFileName();
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    public void start() {
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watchForChanges();
+            }
+        }, "Data file watcher: " + fileName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watchForChanges() {
+        try {
+            while (true) {
+                if (hasFileChanged(watchService.take())) {
+                    waitUntilQuiet();
+                    notifyChange();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed: stop watching.
+        }
+    }
+
+    // A listener failing on one change must not stop the watcher from reporting later ones.
+    private void notifyChange() {
+        try {
+            notifyListeners();
+        } catch (RuntimeException e) {
+            System.err.println("Error handling change to " + fileName + ": " + e);
+        }
+    }
+
+    private void waitUntilQuiet() throws InterruptedException {
+        WatchKey key;
+        while ((key = watchService.poll(QUIET_PERIOD_MS, TimeUnit.MILLISECONDS)) != null) {
+            hasFileChanged(key);
+        }
+    }
+
+    private boolean hasFileChanged(WatchKey key) {
+        boolean hasChanged = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                hasChanged = true;
+            }
+        }
+        key.reset();
+        return hasChanged;
+    }
+
+    /**
+     * Stop watching, waiting for the watcher's thread (and any listener it is running) to finish.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package ca.cmpt213.courseplanner.model;
+
+/**
+ * One row of course offering data, from any kind of data file. Columns are numbered as in the file; a ColumnMapping
+ * tells which column holds which field.
+ */
+public interface DataRow {
+
+    public int getNumberFields();
+
+    public String get(int column);
+
+    /**
+     * Get the value of a column as a canonical String from the reader's StringPool.
+     */
+    public String getPooled(int column);
+
+    /**
+     * Get the values of a column and all columns after it, joined by ", ", as a canonical String. Used for a last
+     * column whose values may spill over into extra columns.
+     */
+    public String getPooledRemaining(int firstColumn);
+
+    /**
+     * Get the value of a column as an int, or 0 (with a warning) if it is not a number.
+     */
+    public int getInt(int column);
+
+}
@@ -0,0 +1,31 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Read the rows of a data file one at a time. The header row is read when the reader is opened and is not returned
+ * as a row.
+ */
+public interface DataRowReader extends Closeable {
+
+    /**
+     * Read the next row of the file. The returned row may be reused by the reader, so it is only valid until the next
+     * call.
+     *
+     * @return The next row, or null when the end of the file has been reached.
+     */
+    public DataRow nextLine() throws IOException;
+
+    /**
+     * Get the names in the file's header row (upper case), or an empty list if the reader did not read a header.
+     */
+    public List<String> getColumnNames();
+
+    /**
+     * Estimate how much of the file has been read so far, from 0 to 1, for progress reports.
+     */
+    public double getFractionRead();
+
+}
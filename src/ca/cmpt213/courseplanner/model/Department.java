@@ -2,31 +2,89 @@ package ca.cmpt213.courseplanner.model;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Store information about a department (such as CMPT or MATH) and manage its courses.
+ * Store information about a department (such as CMPT or MATH) and manage its courses. Courses are indexed by catalog
+ * number and appended unsorted; they are sorted and become visible through courses() when the model is committed.
+ * Publishing also stores the published courses' numbers in a column, which course filters scan.
  */
 public class Department implements Comparable<Department> {
     private String name;
+    private Map<String, Course> coursesByCatalogNumber = new HashMap<String, Course>();
     private List<Course> courses = new ArrayList<Course>();
+    private List<Course> publishedCourses = Collections.emptyList();
+    private int[] publishedCourseNumbers = new int[0];
+    private boolean hasChanged = false;
 
     public Department(String name) {
         this.name = name;
     }
 
     public void addCourse(Course course) {
+        coursesByCatalogNumber.put(course.getCatalogNumber(), course);
         courses.add(course);
+        hasChanged = true;
+    }
+
+    /**
+     * Find a course by catalog number, or null if the department has no such course.
+     */
+    public Course findCourse(String catalogNumber) {
+        return coursesByCatalogNumber.get(catalogNumber);
     }
 
     public Iterable<Course> courses() {
-        return new Iterable<Course>() {
-            @Override
-            public Iterator<Course> iterator() {
-                return Collections.unmodifiableList(courses).iterator();
+        return publishedCourses;
+    }
+
+    /**
+     * Sort the courses added since the last publish (and everything below them) and make them visible to readers.
+     */
+    void publish() {
+        if (hasChanged) {
+            Collections.sort(courses);
+            publishedCourses = Collections.unmodifiableList(new ArrayList<Course>(courses));
+            publishedCourseNumbers = new int[publishedCourses.size()];
+            for (int i = 0; i < publishedCourseNumbers.length; i++) {
+                publishedCourseNumbers[i] = publishedCourses.get(i).getCourseNumber();
+            }
+            hasChanged = false;
+        }
+        for (Course course : courses) {
+            course.publish();
+        }
+    }
+
+    /**
+     * Add the published courses whose numbers match a filter to a list, in order.
+     */
+    void addFilteredCourses(CourseFilter filter, List<Course> matches) {
+        int[] courseNumbers = publishedCourseNumbers;
+        for (int i = 0; i < courseNumbers.length; i++) {
+            if (filter.matchesCourseNumber(courseNumbers[i])) {
+                matches.add(publishedCourses.get(i));
+            }
+        }
+    }
+
+    /**
+     * Throw away the courses (and everything below them) added since the last publish.
+     */
+    void discardChanges() {
+        if (hasChanged) {
+            courses = new ArrayList<Course>(publishedCourses);
+            coursesByCatalogNumber.clear();
+            for (Course course : courses) {
+                coursesByCatalogNumber.put(course.getCatalogNumber(), course);
             }
-        };
+            hasChanged = false;
+        }
+        for (Course course : courses) {
+            course.discardChanges();
+        }
     }
 
     public String getName() {
@@ -34,15 +92,18 @@ public class Department implements Comparable<Department> {
     }
 
     public Course findOrMakeCourse(String catalogNumber) {
-        for (Course course : courses) {
-            if (course.matchesCatalogNumber(catalogNumber)) {
-                return course;
-            }
+        Course course = coursesByCatalogNumber.get(catalogNumber);
+        if (course == null) {
+            course = new Course(this, catalogNumber);
+            addCourse(course);
+        }
+        return course;
+    }
+
+    void mergeFrom(Department other, StringPool pool) {
+        for (Course otherCourse : other.courses) {
+            findOrMakeCourse(pool.intern(otherCourse.getCatalogNumber())).mergeFrom(otherCourse, pool);
         }
-        Course newCourse = new Course(this, catalogNumber);
-        courses.add(newCourse);
-        Collections.sort(courses);
-        return newCourse;
     }
 
     @Override
@@ -1,69 +1,406 @@
 package ca.cmpt213.courseplanner.model;
 
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
- * Manage the collection of departments and reads data from CSV file.
+ * Manage the collection of departments and reads data from data files (CSV, or .xls/.xlsx spreadsheets). Data is
+ * loaded between beginBulkLoad() and commitBulkLoad(), which sorts and publishes it, or abortBulkLoad(), which discards
+ * it.
  */
 public class DepartmentManager implements Iterable<Department> {
+    private static final long MIN_CHUNK_SIZE = 256 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final String XLSX_EXTENSION = ".xlsx";
+    private static final String XLS_EXTENSION = ".xls";
+    private static final int ROWS_PER_PROGRESS_REPORT = 4 * 1024;
+
+    private StringPool pool = new StringPool();
+    private Map<String, Department> departmentsByName = new HashMap<String, Department>();
     private List<Department> departments = new ArrayList<Department>();
+    private List<Department> publishedDepartments = Collections.emptyList();
+    private boolean hasChanged = false;
+    private boolean isBulkLoading = false;
+    // Read by readNewDataFromFile() on other threads.
+    private Map<File, DataFilePosition> filePositions = new ConcurrentHashMap<File, DataFilePosition>();
+    // For rows read by readNewDataFromFile(): the position each file was read from.
+    private Map<File, DataFilePosition> startPositions = new HashMap<File, DataFilePosition>();
+    // The file positions when the current bulk load began, restored if it is aborted.
+    private Map<File, DataFilePosition> committedFilePositions;
+    private LoadProgressListener progressListener;
+    // Built when first needed after each commit.
+    private OfferingIndex offeringIndex;
+    private int numCommits = 0;
 
     public Department findOrMakeDepartment(String subjectName) {
-        for (Department department : departments) {
-            if (department.getName().equals(subjectName)) {
-                return department;
-            }
+        Department department = departmentsByName.get(subjectName);
+        if (department == null) {
+            department = new Department(subjectName);
+            departmentsByName.put(subjectName, department);
+            departments.add(department);
+            hasChanged = true;
         }
-        Department newDepartment = new Department(subjectName);
-        departments.add(newDepartment);
-        Collections.sort(departments);
-        return newDepartment;
+        return department;
+    }
+
+    /**
+     * Find a department by name, or null if there is no such department.
+     */
+    public Department findDepartment(String subjectName) {
+        return departmentsByName.get(subjectName);
     }
 
     public Iterator<Department> iterator() {
-        return Collections.unmodifiableList(departments).iterator();
+        return publishedDepartments.iterator();
     }
 
-    public void loadDataFromFile(File file) throws FileNotFoundException {
-        CSVFileReader reader = new CSVFileReader(file);
+    public void loadDataFromFile(File file) throws IOException {
+        beginBulkLoad();
+        try {
+            appendDataFromFile(file);
+        } catch (IOException | RuntimeException e) {
+            abortBulkLoad();
+            throw e;
+        }
+        commitBulkLoad();
+    }
+
+    public void beginBulkLoad() {
+        if (isBulkLoading) {
+            throw new IllegalStateException("Bulk load already in progress.");
+        }
+        committedFilePositions = new HashMap<File, DataFilePosition>(filePositions);
+        isBulkLoading = true;
+    }
 
-        for (CSVFileLine fileLine : reader) {
-            addDataFromCSVLine(fileLine);
+    public void appendDataFromFile(File file) throws IOException {
+        if (isSpreadsheet(file, XLSX_EXTENSION)) {
+            appendDataRows(new XlsxRowReader(file, pool), file);
+        } else if (isSpreadsheet(file, XLS_EXTENSION)) {
+            appendDataRows(new XlsRowReader(file, pool), file);
+        } else {
+            try (CSVFileReader reader = new CSVFileReader(file, pool)) {
+                ColumnMapping columns = appendDataRows(reader, file);
+                filePositions.put(file.getAbsoluteFile(), DataFilePosition.at(file, reader.getPosition(), columns));
+            }
         }
     }
 
-    private void addDataFromCSVLine(CSVFileLine fileLine) {
-        String semesterStr = fileLine.get(CSVFileLine.COLUMN_SEMESTER);
-        String subjectName = fileLine.get(CSVFileLine.COLUMN_SUBJECT);
-        String catalogNumber = fileLine.get(CSVFileLine.COLUMN_CATALOG_NUMBER);
-        String location = fileLine.get(CSVFileLine.COLUMN_LOCATION);
-        String enrollmentCapStr = fileLine.get(CSVFileLine.COLUMN_ENROLLMENT_CAP);
-        String component = fileLine.get(CSVFileLine.COLUMN_COMPONENT);
-        String enrollmentTotalStr = fileLine.get(CSVFileLine.COLUMN_ENROLLMENT_TOTAL);
-        String instructor = fileLine.get(CSVFileLine.COLUMN_INSTRUCTOR);
+    private ColumnMapping appendDataRows(DataRowReader reader, File file) throws IOException {
+        try {
+            ColumnMapping columns = ColumnMapping.fromColumnNames(reader.getColumnNames());
+            long startTime = System.nanoTime();
+            long numRows = 0;
+            DataRow row;
+            while ((row = reader.nextLine()) != null) {
+                appendDataRow(row, columns);
+                numRows++;
+                if (numRows % ROWS_PER_PROGRESS_REPORT == 0) {
+                    reportProgress(file, numRows, reader.getFractionRead(), startTime);
+                }
+            }
+            reportProgress(file, numRows, 1, startTime);
+            return columns;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Set the listener to receive progress reports while files are loaded (or null for none).
+     */
+    public void setProgressListener(LoadProgressListener listener) {
+        progressListener = listener;
+    }
+
+    private void reportProgress(File file, long numRows, double fractionRead, long startTime) {
+        if (progressListener != null) {
+            long totalBytes = file.length();
+            long bytesRead = (long) (fractionRead * totalBytes);
+            progressListener.progressMade(
+                    new LoadProgress(file, numRows, bytesRead, totalBytes, System.nanoTime() - startTime));
+        }
+    }
+
+    /**
+     * Check whether only rows have been appended to a CSV file since it was loaded, so readNewDataFromFile() may be
+     * used to load them.
+     */
+    public boolean canAppendNewDataFrom(File file) throws IOException {
+        DataFilePosition position = filePositions.get(file.getAbsoluteFile());
+        return position != null && position.isContinuedBy(file);
+    }
+
+    public boolean hasNewDataIn(File file) {
+        DataFilePosition position = filePositions.get(file.getAbsoluteFile());
+        return position == null || position.hasDataAfter(file);
+    }
+
+    /**
+     * Read only the rows appended to a CSV file since it was last loaded, into a new DepartmentManager for
+     * appendNewData() to merge into this one. This manager is not changed, so the file may be read on a background
+     * thread while this manager is in use. A last row without a line terminator may still be being written, so it is
+     * left to be read once it is complete.
+     */
+    public DepartmentManager readNewDataFromFile(File file) throws IOException {
+        if (!canAppendNewDataFrom(file)) {
+            throw new IllegalStateException("Data file " + file + " has changed other than by appending rows.");
+        }
+        File key = file.getAbsoluteFile();
+        DataFilePosition position = filePositions.get(key);
+        ColumnMapping columns = position.getColumns();
+
+        DepartmentManager newData = new DepartmentManager();
+        newData.beginBulkLoad();
+        try (CSVFileReader reader = new CSVFileReader(file, position.getOffset(), file.length(), newData.pool)) {
+            reader.setCompleteLinesOnly(true);
+            CSVFileLine fileLine;
+            while ((fileLine = reader.nextLine()) != null) {
+                newData.appendDataRow(fileLine, columns);
+            }
+            newData.filePositions.put(key, DataFilePosition.at(file, reader.getPosition(), columns));
+        }
+        newData.startPositions.put(key, position);
+        return newData;
+    }
+
+    /**
+     * Merge rows read by readNewDataFromFile() into the existing departments, courses and offerings, during a bulk
+     * load.
+     *
+     * @return False (with nothing merged) if a file has been read further since the rows were read.
+     */
+    public boolean appendNewData(DepartmentManager newData) {
+        if (!isBulkLoading) {
+            throw new IllegalStateException("Data can only be appended during a bulk load.");
+        }
+        for (Map.Entry<File, DataFilePosition> start : newData.startPositions.entrySet()) {
+            if (filePositions.get(start.getKey()) != start.getValue()) {
+                return false;
+            }
+        }
+        mergeFrom(newData);
+        filePositions.putAll(newData.filePositions);
+        return true;
+    }
+
+    private static boolean isSpreadsheet(File file, String extension) {
+        return file.getName().toLowerCase().endsWith(extension);
+    }
+
+    public void loadDataFromFileInParallel(File file) throws IOException {
+        beginBulkLoad();
+        try {
+            appendDataFromFileInParallel(file);
+        } catch (IOException | RuntimeException e) {
+            abortBulkLoad();
+            throw e;
+        }
+        commitBulkLoad();
+    }
+
+    /**
+     * Load the departments from a snapshot that is up to date with the given source data file.
+     */
+    public void loadDataFromSnapshot(File snapshotFile, File sourceFile) throws IOException {
+        long startTime = System.nanoTime();
+        beginBulkLoad();
+        try {
+            ModelSnapshotFile.load(snapshotFile, this, pool);
+        } catch (IOException | RuntimeException e) {
+            abortBulkLoad();
+            throw e;
+        }
+        commitBulkLoad();
+        reportProgress(snapshotFile, 0, 1, startTime);
+        if (!isSpreadsheet(sourceFile, XLSX_EXTENSION) && !isSpreadsheet(sourceFile, XLS_EXTENSION)) {
+            rememberEndOfFile(sourceFile);
+        }
+    }
+
+    private void rememberEndOfFile(File file) throws IOException {
+        try (CSVFileReader reader = new CSVFileReader(file, pool)) {
+            ColumnMapping columns = ColumnMapping.fromColumnNames(reader.getColumnNames());
+            filePositions.put(file.getAbsoluteFile(), DataFilePosition.at(file, file.length(), columns));
+        }
+    }
+
+    public void saveSnapshot(File snapshotFile, File sourceFile) throws IOException {
+        ModelSnapshotFile.save(publishedDepartments, snapshotFile, sourceFile);
+    }
+
+    public void appendDataFromFileInParallel(File file) throws IOException {
+        if (isSpreadsheet(file, XLSX_EXTENSION) || isSpreadsheet(file, XLS_EXTENSION)) {
+            // Spreadsheets can't be split on line boundaries, so read them serially.
+            appendDataFromFile(file);
+            return;
+        }
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, file.length() / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        appendDataFromFileInParallel(file, pool, chunkSize);
+    }
+
+    void appendDataFromFileInParallel(File file, ForkJoinPool pool, long chunkSize) throws IOException {
+        if (!isBulkLoading) {
+            throw new IllegalStateException("Data can only be appended during a bulk load.");
+        }
+
+        // Only the first chunk starts with the header, so resolve the columns once for all chunks.
+        ColumnMapping columns;
+        try (CSVFileReader reader = new CSVFileReader(file, this.pool)) {
+            columns = ColumnMapping.fromColumnNames(reader.getColumnNames());
+        }
+
+        long[] boundaries = CSVFileReader.findChunkBoundaries(file, chunkSize);
+        List<Future<DepartmentManager>> partials = new ArrayList<Future<DepartmentManager>>();
+        for (int i = 0; i + 1 < boundaries.length; i++) {
+            partials.add(pool.submit(makeChunkLoader(file, boundaries[i], boundaries[i + 1], columns)));
+        }
+
+        // Merge in file order so the result does not depend on which chunk finished first.
+        for (Future<DepartmentManager> partial : partials) {
+            mergeFrom(waitForChunk(partial));
+        }
+        long endOffset = boundaries[boundaries.length - 1];
+        filePositions.put(file.getAbsoluteFile(), DataFilePosition.at(file, endOffset, columns));
+    }
+
+    private Callable<DepartmentManager> makeChunkLoader(final File file, final long startOffset, final long endOffset,
+                                                        final ColumnMapping columns) {
+        return new Callable<DepartmentManager>() {
+            @Override
+            public DepartmentManager call() throws IOException {
+                // Each chunk has its own pool (pools are not thread safe); strings are made canonical when merged.
+                DepartmentManager partial = new DepartmentManager();
+                partial.beginBulkLoad();
+                try (CSVFileReader reader = new CSVFileReader(file, startOffset, endOffset, partial.pool)) {
+                    CSVFileLine fileLine;
+                    while ((fileLine = reader.nextLine()) != null) {
+                        partial.appendDataRow(fileLine, columns);
+                    }
+                }
+                return partial;
+            }
+        };
+    }
+
+    private DepartmentManager waitForChunk(Future<DepartmentManager> partial) throws IOException {
+        try {
+            return partial.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading data file.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Error loading data file.", e.getCause());
+        }
+    }
+
+    private void mergeFrom(DepartmentManager other) {
+        for (Department otherDepartment : other.departments) {
+            findOrMakeDepartment(pool.intern(otherDepartment.getName())).mergeFrom(otherDepartment, pool);
+        }
+    }
+
+    public void appendDataRow(DataRow fileLine) {
+        appendDataRow(fileLine, ColumnMapping.defaultMapping());
+    }
+
+    public void appendDataRow(DataRow fileLine, ColumnMapping columns) {
+        if (!isBulkLoading) {
+            throw new IllegalStateException("Data can only be appended during a bulk load.");
+        }
+        int semesterCode = columns.getSemesterCode(fileLine);
+        String subjectName = columns.getSubject(fileLine);
+        String catalogNumber = columns.getCatalogNumber(fileLine);
+        String location = columns.getLocation(fileLine);
+        int enrollmentCap = columns.getEnrollmentCap(fileLine);
+        String component = columns.getComponent(fileLine);
+        int enrollmentTotal = columns.getEnrollmentTotal(fileLine);
+        String instructor = columns.getInstructor(fileLine);
 
         Department department = findOrMakeDepartment(subjectName);
 
         Course course = department.findOrMakeCourse(catalogNumber);
 
-        Semester semester = new Semester(semesterStr);
-        int enrollmentCap = asInt(enrollmentCapStr);
-        int enrollmentTotal = asInt(enrollmentTotalStr);
+        Semester semester = Semester.of(semesterCode);
         course.addSection(semester, location, component, enrollmentCap, enrollmentTotal, instructor);
     }
 
-    private int asInt(String str) {
-        try {
-            return Integer.parseInt(str);
-        } catch (NumberFormatException e) {
-            System.out.println("Number conversion problem for string '" + str + "'");
-            return 0;
+    public void commitBulkLoad() {
+        if (!isBulkLoading) {
+            throw new IllegalStateException("No bulk load in progress.");
+        }
+        if (hasChanged) {
+            Collections.sort(departments);
+            publishedDepartments = Collections.unmodifiableList(new ArrayList<Department>(departments));
+            hasChanged = false;
+        }
+        for (Department department : departments) {
+            department.publish();
+        }
+        discardOfferingIndex();
+        numCommits++;
+        isBulkLoading = false;
+    }
+
+    /**
+     * Get the number of bulk loads committed, so results computed from the published data can tell when it changes.
+     */
+    int getNumCommits() {
+        return numCommits;
+    }
+
+    /**
+     * End a bulk load without publishing it: everything loaded since beginBulkLoad() is thrown away, leaving the
+     * published data (and how far each file has been read) as it was.
+     */
+    public void abortBulkLoad() {
+        if (!isBulkLoading) {
+            throw new IllegalStateException("No bulk load in progress.");
+        }
+        if (hasChanged) {
+            departments = new ArrayList<Department>(publishedDepartments);
+            departmentsByName.clear();
+            for (Department department : departments) {
+                departmentsByName.put(department.getName(), department);
+            }
+            hasChanged = false;
+        }
+        for (Department department : departments) {
+            department.discardChanges();
+        }
+        filePositions.clear();
+        filePositions.putAll(committedFilePositions);
+        isBulkLoading = false;
+    }
+
+    private synchronized void discardOfferingIndex() {
+        offeringIndex = null;
+    }
+
+    /**
+     * Get the index of all published offerings, building it if the data has changed since it was last built.
+     */
+    public synchronized OfferingIndex getOfferingIndex() {
+        if (offeringIndex == null) {
+            offeringIndex = OfferingIndex.build(publishedDepartments);
         }
+        return offeringIndex;
     }
 
 }
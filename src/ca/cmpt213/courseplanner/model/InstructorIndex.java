@@ -0,0 +1,221 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from each instructor to the offerings they taught (as offering numbers of an OfferingIndex). Names
+ * are normalized (lower case, single spaces) for searching: prefix searches use binary search over the sorted names,
+ * and substring searches use an index of the three-letter sequences (trigrams) in each name.
+ *
+ * An offering's instructor values may each list several people ("A, B"); each person is indexed separately.
+ */
+public class InstructorIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final String NAME_SEPARATOR = ",";
+
+    private String[] keys;
+    private String[] names;
+    private int numOfferings;
+    private CompressedBitmap[] offeringsByName;
+    private Map<String, int[]> nameIdsByGram = new HashMap<String, int[]>();
+
+    /**
+     * Builds an InstructorIndex one offering at a time.
+     */
+    static class Builder {
+        private int numOfferings;
+        private TreeMap<String, String> namesByKey = new TreeMap<String, String>();
+        private Map<String, CompressedBitmap.Builder> offeringsByKey = new HashMap<String, CompressedBitmap.Builder>();
+
+        Builder(int numOfferings) {
+            this.numOfferings = numOfferings;
+        }
+
+        /**
+         * Add an offering's instructors; offerings must be added in increasing order of their numbers.
+         */
+        void addOffering(int offeringId, CourseOffering offering) {
+            for (String instructors : offering.instructors()) {
+                for (String name : instructors.split(NAME_SEPARATOR)) {
+                    addName(offeringId, name.trim());
+                }
+            }
+        }
+
+        private void addName(int offeringId, String name) {
+            String key = normalize(name);
+            if (key.isEmpty()) {
+                return;
+            }
+            CompressedBitmap.Builder offerings = offeringsByKey.get(key);
+            if (offerings == null) {
+                offerings = new CompressedBitmap.Builder(numOfferings);
+                offeringsByKey.put(key, offerings);
+                namesByKey.put(key, name);
+            }
+            offerings.add(offeringId);
+        }
+
+        InstructorIndex build() {
+            return new InstructorIndex(this);
+        }
+    }
+
+    private InstructorIndex(Builder builder) {
+        int size = builder.namesByKey.size();
+        keys = builder.namesByKey.keySet().toArray(new String[size]);
+        names = builder.namesByKey.values().toArray(new String[size]);
+        numOfferings = builder.numOfferings;
+        offeringsByName = new CompressedBitmap[size];
+        for (int id = 0; id < size; id++) {
+            offeringsByName[id] = builder.offeringsByKey.get(keys[id]).build();
+        }
+        buildGramIndex();
+    }
+
+    private void buildGramIndex() {
+        Map<String, List<Integer>> idLists = new HashMap<String, List<Integer>>();
+        for (int id = 0; id < keys.length; id++) {
+            String key = keys[id];
+            for (int start = 0; start + GRAM_LENGTH <= key.length(); start++) {
+                String gram = key.substring(start, start + GRAM_LENGTH);
+                List<Integer> ids = idLists.get(gram);
+                if (ids == null) {
+                    ids = new ArrayList<Integer>();
+                    idLists.put(gram, ids);
+                }
+                // Ids are added in increasing order, so a repeated gram in one name is always the last entry.
+                if (ids.isEmpty() || ids.get(ids.size() - 1) != id) {
+                    ids.add(id);
+                }
+            }
+        }
+
+        for (Map.Entry<String, List<Integer>> entry : idLists.entrySet()) {
+            List<Integer> ids = entry.getValue();
+            int[] idArray = new int[ids.size()];
+            for (int i = 0; i < idArray.length; i++) {
+                idArray[i] = ids.get(i);
+            }
+            nameIdsByGram.put(entry.getKey(), idArray);
+        }
+    }
+
+    static String normalize(String name) {
+        StringBuilder key = new StringBuilder(name.length());
+        boolean isAfterSpace = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c)) {
+                isAfterSpace = key.length() > 0;
+            } else {
+                if (isAfterSpace) {
+                    key.append(' ');
+                    isAfterSpace = false;
+                }
+                key.append(Character.toLowerCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /*
+     * Name searches (ignoring case); names are returned in alphabetical order.
+     */
+    public List<String> findNamesStartingWith(String prefix) {
+        return namesOf(findIdsStartingWith(normalize(prefix)));
+    }
+
+    public List<String> findNamesContaining(String text) {
+        return namesOf(findIdsContaining(normalize(text)));
+    }
+
+    private int[] findIdsStartingWith(String prefix) {
+        int first = Arrays.binarySearch(keys, prefix);
+        if (first < 0) {
+            first = -first - 1;
+        }
+        int end = first;
+        while (end < keys.length && keys[end].startsWith(prefix)) {
+            end++;
+        }
+        int[] ids = new int[end - first];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = first + i;
+        }
+        return ids;
+    }
+
+    private int[] findIdsContaining(String text) {
+        if (text.length() < GRAM_LENGTH) {
+            return findIdsByScan(text);
+        }
+
+        // Only names having every gram of the text can contain it; start from the gram with the fewest names.
+        int[] candidates = null;
+        for (int start = 0; start + GRAM_LENGTH <= text.length(); start++) {
+            int[] ids = nameIdsByGram.get(text.substring(start, start + GRAM_LENGTH));
+            if (ids == null) {
+                return new int[0];
+            }
+            if (candidates == null || ids.length < candidates.length) {
+                candidates = ids;
+            }
+        }
+
+        int[] matches = new int[candidates.length];
+        int numMatches = 0;
+        for (int id : candidates) {
+            if (keys[id].contains(text)) {
+                matches[numMatches++] = id;
+            }
+        }
+        return Arrays.copyOf(matches, numMatches);
+    }
+
+    private int[] findIdsByScan(String text) {
+        int[] matches = new int[keys.length];
+        int numMatches = 0;
+        for (int id = 0; id < keys.length; id++) {
+            if (keys[id].contains(text)) {
+                matches[numMatches++] = id;
+            }
+        }
+        return Arrays.copyOf(matches, numMatches);
+    }
+
+    private List<String> namesOf(int[] ids) {
+        List<String> result = new ArrayList<String>(ids.length);
+        for (int id : ids) {
+            result.add(names[id]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /*
+     * Offerings, for OfferingIndex.
+     */
+    CompressedBitmap getOfferingBitmap(String name) {
+        int id = Arrays.binarySearch(keys, normalize(name));
+        return id < 0 ? CompressedBitmap.empty(numOfferings) : offeringsByName[id];
+    }
+
+    CompressedBitmap getOfferingBitmapContaining(String text) {
+        CompressedBitmap offerings = CompressedBitmap.empty(numOfferings);
+        for (int id : findIdsContaining(normalize(text))) {
+            offerings = offerings.or(offeringsByName[id]);
+        }
+        return offerings;
+    }
+
+}
@@ -0,0 +1,60 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A report of how far loading a data file has got: rows loaded, bytes read and time taken so far.
+ */
+public class LoadProgress {
+    private final File file;
+    private final long rowsLoaded;
+    private final long bytesRead;
+    private final long totalBytes;
+    private final long elapsedNanos;
+
+    public LoadProgress(File file, long rowsLoaded, long bytesRead, long totalBytes, long elapsedNanos) {
+        this.file = file;
+        this.rowsLoaded = rowsLoaded;
+        this.bytesRead = bytesRead;
+        this.totalBytes = totalBytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getRowsLoaded() {
+        return rowsLoaded;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public int getPercentDone() {
+        if (totalBytes <= 0) {
+            return 100;
+        }
+        return (int) (bytesRead * 100 / totalBytes);
+    }
+
+    public long getRowsPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return rowsLoaded * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d%% (%,d of %,d bytes), %,d rows at %,d rows/sec",
+                file.getName(), getPercentDone(), bytesRead, totalBytes, rowsLoaded, getRowsPerSecond());
+    }
+
+}
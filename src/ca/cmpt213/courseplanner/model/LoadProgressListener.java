@@ -0,0 +1,10 @@
+package ca.cmpt213.courseplanner.model;
+
+/**
+ * Receive progress reports while a data file is loaded. Reports are made on the loading thread.
+ */
+public interface LoadProgressListener {
+
+    public void progressMade(LoadProgress progress);
+
+}
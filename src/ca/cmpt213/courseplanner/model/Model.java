@@ -1,31 +1,312 @@
 package ca.cmpt213.courseplanner.model;
 
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
 /**
  * Facade to group model functionality into one interface for centralize access.
  */
 public class Model {
-    private DepartmentManager departmentManager = new DepartmentManager();
+    // Replaced or changed only on the event dispatch thread once the UI is running.
+    private volatile DepartmentManager departmentManager = new DepartmentManager();
     private CourseFilterManager filterManager = new CourseFilterManager(this);
     private CourseSelectionManager courseSelectManager = new CourseSelectionManager(this);
     private OfferingSelectionManager selectedOfferingManager = new OfferingSelectionManager();
+    private ModelObservableImpl dataChangeNotifier = new ModelObservableImpl();
+    private DataFileWatcher dataFileWatcher;
 
     /*
      * Manage Departments
      */
-    public void loadDataFromFile(File file) throws FileNotFoundException {
+    public void loadDataFromFile(File file) throws IOException {
         departmentManager.loadDataFromFile(file);
+        notifyDataChanged();
+    }
+
+    /**
+     * Load the model from a binary snapshot of the data file, if the snapshot is up to date with the data file.
+     * Otherwise load the data file itself and save a new snapshot for next time.
+     */
+    public void loadDataFromFile(File file, File snapshotFile) throws IOException {
+        setDepartments(loadDepartments(file, snapshotFile, null));
+    }
+
+    /**
+     * Load a data file (or its snapshot, as for loadDataFromFile(), unless snapshotFile is null) into a new set of
+     * departments, without changing the model. This may be done on a background thread, then the result put in the
+     * model by setDepartments().
+     */
+    public DepartmentManager loadDepartments(File file, File snapshotFile, LoadProgressListener listener)
+            throws IOException {
+        if (snapshotFile != null && ModelSnapshotFile.isUpToDate(snapshotFile, file)) {
+            try {
+                DepartmentManager snapshotDepartments = new DepartmentManager();
+                snapshotDepartments.setProgressListener(listener);
+                snapshotDepartments.loadDataFromSnapshot(snapshotFile, file);
+                return snapshotDepartments;
+            } catch (IOException e) {
+                System.err.println("Unable to load snapshot: " + e.getMessage());
+            }
+        }
+
+        DepartmentManager fileDepartments = new DepartmentManager();
+        fileDepartments.setProgressListener(listener);
+        fileDepartments.loadDataFromFile(file);
+        if (snapshotFile == null) {
+            return fileDepartments;
+        }
+        try {
+            fileDepartments.saveSnapshot(snapshotFile, file);
+        } catch (IOException e) {
+            System.err.println("Unable to save snapshot: " + e.getMessage());
+        }
+        return fileDepartments;
+    }
+
+    /**
+     * Load the rows appended to a data file since it was loaded, then merge them into the existing courses and
+     * offerings and notify listeners once for the whole batch. If the file changed in any other way (or is not a CSV
+     * file), it is reloaded in full as the model's only data file. The file is read on the calling thread; the model is
+     * only changed on the event dispatch thread.
+     */
+    public void reloadDataFromFile(File file) throws IOException {
+        reloadDataFromFile(file, null);
+    }
+
+    /**
+     * Reload a data file as for reloadDataFromFile(File), except that a full reload goes through the snapshot file (as
+     * for loadDataFromFile(File, File)).
+     */
+    public void reloadDataFromFile(File file, File snapshotFile) throws IOException {
+        DepartmentManager currentDepartments = departmentManager;
+        if (currentDepartments.canAppendNewDataFrom(file)) {
+            if (!currentDepartments.hasNewDataIn(file)) {
+                return;
+            }
+            final DepartmentManager newData = currentDepartments.readNewDataFromFile(file);
+            boolean isAppended = runOnEventThread(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return appendNewData(newData);
+                }
+            });
+            if (isAppended) {
+                return;
+            }
+        }
+
+        final DepartmentManager reloadedDepartments = loadDepartments(file, snapshotFile, null);
+        reloadedDepartments.getOfferingIndex();
+        runOnEventThread(new Callable<Void>() {
+            @Override
+            public Void call() {
+                setDepartments(reloadedDepartments);
+                return null;
+            }
+        });
+    }
+
+    // Returns false if the model was changed after the new data was read, so the rows no longer follow on from it.
+    private boolean appendNewData(DepartmentManager newData) {
+        Course selectedCourse = getSelectedCourse();
+        CourseOffering selectedOffering = getSelectedSection();
+        departmentManager.beginBulkLoad();
+        boolean isAppended;
+        try {
+            isAppended = departmentManager.appendNewData(newData);
+        } catch (RuntimeException e) {
+            departmentManager.abortBulkLoad();
+            throw e;
+        }
+        if (!isAppended) {
+            departmentManager.abortBulkLoad();
+            return false;
+        }
+        departmentManager.commitBulkLoad();
+        notifyDataChanged();
+        reselect(selectedCourse, selectedOffering);
+        return true;
+    }
+
+    private static <T> T runOnEventThread(Callable<T> task) throws IOException {
+        FutureTask<T> future = new FutureTask<T>(task);
+        if (SwingUtilities.isEventDispatchThread()) {
+            future.run();
+        } else {
+            SwingUtilities.invokeLater(future);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while updating the model.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Watch a data file and reload it whenever it changes (see reloadDataFromFile(File, File)). Each reload is read on
+     * the watcher's background thread and put in the model on the event dispatch thread, so the UI never sees a partly
+     * loaded model.
+     */
+    public void startWatchingDataFile(final File file, final File snapshotFile) throws IOException {
+        stopWatchingDataFile();
+        dataFileWatcher = new DataFileWatcher(file);
+        dataFileWatcher.addListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                reloadInBackground(file, snapshotFile);
+            }
+        });
+        dataFileWatcher.start();
+    }
+
+    public void stopWatchingDataFile() throws IOException {
+        if (dataFileWatcher != null) {
+            dataFileWatcher.close();
+            dataFileWatcher = null;
+        }
+    }
+
+    // Called on the watcher's thread.
+    private void reloadInBackground(File file, File snapshotFile) {
+        try {
+            reloadDataFromFile(file, snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Unable to reload data file: " + e);
+        }
+    }
+
+    /**
+     * Replace all of the model's data, then notify the data change and course filter listeners. Once the UI is running
+     * this must be called on the event dispatch thread.
+     */
+    public void setDepartments(DepartmentManager newDepartments) {
+        Course selectedCourse = getSelectedCourse();
+        CourseOffering selectedOffering = getSelectedSection();
+        departmentManager = newDepartments;
+        notifyDataChanged();
+        reselect(selectedCourse, selectedOffering);
+    }
+
+    // Keep the same course and offering selected, using their objects from the current departments.
+    private void reselect(Course course, CourseOffering offering) {
+        if (course == null) {
+            return;
+        }
+        Course newCourse = findCourse(course.getDepartment().getName(), course.getCatalogNumber());
+        selectCourse(newCourse);
+        if (newCourse == null || offering == null) {
+            return;
+        }
+        for (CourseOffering newOffering : newCourse.offerings()) {
+            if (newOffering.matches(offering.getSemester(), offering.getLocation())) {
+                selectOffering(newOffering);
+                return;
+            }
+        }
+    }
+
+    private void notifyDataChanged() {
+        dataChangeNotifier.notifyListeners();
+        filterManager.dataChanged();
+    }
+
+    public void addDataChangeListener(ChangeListener listener) {
+        dataChangeNotifier.addListener(listener);
+    }
+
+    public void saveSnapshot(File snapshotFile, File sourceFile) throws IOException {
+        departmentManager.saveSnapshot(snapshotFile, sourceFile);
+    }
+
+    public void loadDataFromFileInParallel(File file) throws IOException {
+        departmentManager.loadDataFromFileInParallel(file);
+        notifyDataChanged();
+    }
+
+    public void beginBulkLoad() {
+        departmentManager.beginBulkLoad();
+    }
+
+    public void appendDataFromFile(File file) throws IOException {
+        departmentManager.appendDataFromFile(file);
+    }
+
+    public void commitBulkLoad() {
+        departmentManager.commitBulkLoad();
+        notifyDataChanged();
+    }
+
+    public void abortBulkLoad() {
+        departmentManager.abortBulkLoad();
     }
 
     public Iterable<Department> departments() {
         return departmentManager;
     }
 
+    DepartmentManager getDepartmentManager() {
+        return departmentManager;
+    }
+
+    /**
+     * Find a course by department name and catalog number, or null if the model has no such course.
+     */
+    public Course findCourse(String subjectName, String catalogNumber) {
+        Department department = departmentManager.findDepartment(subjectName);
+        return department == null ? null : department.findCourse(catalogNumber);
+    }
+
+    /*
+     * Offering Queries
+     */
+    public List<CourseOffering> findOfferings(OfferingQuery query) {
+        return departmentManager.getOfferingIndex().find(query);
+    }
+
+    public int countOfferings(OfferingQuery query) {
+        return departmentManager.getOfferingIndex().count(query);
+    }
+
+    /**
+     * Get the index of all offerings, for selecting and counting offerings by department, semester, campus and
+     * component. It is replaced (not changed) when the data changes.
+     */
+    public OfferingIndex getOfferingIndex() {
+        return departmentManager.getOfferingIndex();
+    }
+
+    /*
+     * Instructors
+     */
+    public List<String> findInstructors(String nameText) {
+        return departmentManager.getOfferingIndex().getInstructors().findNamesContaining(nameText);
+    }
+
+    public List<String> findInstructorsStartingWith(String namePrefix) {
+        return departmentManager.getOfferingIndex().getInstructors().findNamesStartingWith(namePrefix);
+    }
+
+    public List<CourseOffering> getOfferingsTaughtBy(String instructor) {
+        return departmentManager.getOfferingIndex().findOfferingsTaughtBy(instructor);
+    }
+
     /*
      * Course Filter
      */
@@ -80,35 +361,28 @@ public class Model {
     }
 
     /*
-     * Debug routines to display the contents of the model to the console.
+     * Reports
      */
-    public void dumpModelToConsole() {
-        for (Department department : departments()) {
-            dumpDepartmentToConsole(department);
-        }
-    }
-
-    private void dumpDepartmentToConsole(Department department) {
-        for (Course course : department.courses()) {
-            System.out.println(course);
-            dumpCourseToConsole(course);
-        }
+    public void writeReport(Writer out, ModelReportWriter.Format format) throws IOException {
+        ModelReportWriter report = new ModelReportWriter(out, format);
+        report.write(departments());
+        report.flush();
     }
 
-    private void dumpCourseToConsole(Course course) {
-        for (CourseOffering offering : course.offerings()) {
-            dumpComponentsToConsole(offering);
-        }
+    public void writeReport(OutputStream out, ModelReportWriter.Format format) throws IOException {
+        ModelReportWriter report = new ModelReportWriter(out, format);
+        report.write(departments());
+        report.flush();
     }
 
-    private void dumpComponentsToConsole(CourseOffering offering) {
-        System.out.println("\t" + offering);
-
-        String componentInfo = "";
-        for (OfferingSection component : offering.components()) {
-            componentInfo += "\t\t" + component + "\n";
+    /*
+     * Debug routine to display the contents of the model to the console.
+     */
+    public void dumpModelToConsole() {
+        try {
+            writeReport(System.out, ModelReportWriter.Format.TEXT);
+        } catch (IOException e) {
+            System.out.println("Unable to write model to console: " + e.getMessage());
         }
-
-        System.out.println("\t\t" + componentInfo.trim());
     }
 }
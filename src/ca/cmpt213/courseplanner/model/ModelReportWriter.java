@@ -0,0 +1,307 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Write a report of the departments in the model (each course, its offerings and their sections) as plain text, CSV or
+ * JSON. Each line is built in one reused StringBuilder and written through a large buffer, so large models can be
+ * written quickly to a file or the console.
+ *
+ * The CSV report uses the same columns as the data files, with one row per section (each component type of an
+ * offering). Loading it back gives a model with the same courses, offerings, sections and instructors.
+ */
+public class ModelReportWriter implements Closeable, Flushable {
+    public enum Format {
+        TEXT, CSV, JSON
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String LIST_SEPARATOR = ", ";
+    private static final String CSV_HEADER = "STRM,SUBJECT,CATALOG_NBR,LOCATION,ENRL_CAP,SSR_COMPONENT,ENRL_TOT,INSTRUCTORS";
+    private static final char CSV_SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private Writer out;
+    private Format format;
+    private StringBuilder line = new StringBuilder();
+    private char[] lineChars = new char[BUFFER_SIZE];
+    private boolean isFirstCourse = true;
+    private List<OfferingSection> csvSections = new ArrayList<OfferingSection>();
+
+    public ModelReportWriter(Writer out, Format format) {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, BUFFER_SIZE);
+        this.format = format;
+    }
+
+    public ModelReportWriter(OutputStream out, Format format) {
+        this(new OutputStreamWriter(out, StandardCharsets.UTF_8), format);
+    }
+
+    /**
+     * Write a complete report of the given departments.
+     */
+    public void write(Iterable<Department> departments) throws IOException {
+        writeStart();
+        for (Department department : departments) {
+            for (Course course : department.courses()) {
+                writeCourse(course);
+            }
+        }
+        writeEnd();
+    }
+
+    private void writeStart() throws IOException {
+        if (format == Format.CSV) {
+            line.append(CSV_HEADER);
+            endLine();
+        } else if (format == Format.JSON) {
+            line.append('[');
+            endLine();
+        }
+        isFirstCourse = true;
+    }
+
+    private void writeEnd() throws IOException {
+        if (format == Format.JSON) {
+            if (!isFirstCourse) {
+                endLine();
+            }
+            line.append(']');
+            endLine();
+        }
+    }
+
+    private void writeCourse(Course course) throws IOException {
+        switch (format) {
+        case TEXT:
+            writeCourseAsText(course);
+            break;
+        case CSV:
+            writeCourseAsCsv(course);
+            break;
+        case JSON:
+            writeCourseAsJson(course);
+            break;
+        }
+        isFirstCourse = false;
+    }
+
+    /*
+     * Text: one line per course, offering and section.
+     */
+    private void writeCourseAsText(Course course) throws IOException {
+        line.append(course.getDepartment().getName()).append(' ').append(course.getCatalogNumber());
+        endLine();
+
+        for (CourseOffering offering : course.offerings()) {
+            line.append('\t').append(offering.getSemester().getSemesterCode())
+                    .append(" in ").append(offering.getLocation())
+                    .append(" by ");
+            appendInstructors(offering);
+            endLine();
+
+            line.append("\t\t");
+            boolean isFirstSection = true;
+            for (OfferingSection section : offering.components()) {
+                if (!isFirstSection) {
+                    endLine();
+                    line.append("\t\t");
+                }
+                line.append("Type=").append(section.getType())
+                        .append(", Enrollment=").append(section.getEnrollmentTotal())
+                        .append('/').append(section.getEnrollmentCap());
+                isFirstSection = false;
+            }
+            endLine();
+        }
+    }
+
+    private void appendInstructors(CourseOffering offering) {
+        boolean isFirst = true;
+        for (String instructor : offering.instructors()) {
+            if (!isFirst) {
+                line.append(LIST_SEPARATOR);
+            }
+            line.append(instructor);
+            isFirst = false;
+        }
+    }
+
+    /*
+     * CSV: one row per section.
+     */
+    private void writeCourseAsCsv(Course course) throws IOException {
+        String subject = course.getDepartment().getName();
+        for (CourseOffering offering : course.offerings()) {
+            for (OfferingSection section : sectionsInInstructorOrder(offering)) {
+                line.append(offering.getSemester().getSemesterCode()).append(CSV_SEPARATOR);
+                appendCsvField(subject).append(CSV_SEPARATOR);
+                appendCsvField(course.getCatalogNumber()).append(CSV_SEPARATOR);
+                appendCsvField(offering.getLocation()).append(CSV_SEPARATOR);
+                line.append(section.getEnrollmentCap()).append(CSV_SEPARATOR);
+                appendCsvField(section.getType()).append(CSV_SEPARATOR);
+                line.append(section.getEnrollmentTotal()).append(CSV_SEPARATOR);
+                appendCsvField(section.getInstructor());
+                endLine();
+            }
+        }
+    }
+
+    // Order the sections by when their instructors were added to the offering (stable for ties), so loading the rows
+    // back adds the instructors in the same order.
+    private List<OfferingSection> sectionsInInstructorOrder(CourseOffering offering) {
+        List<String> instructors = offering.instructors();
+        csvSections.clear();
+        for (OfferingSection section : offering.components()) {
+            int order = instructors.indexOf(section.getInstructor());
+            int i = csvSections.size();
+            while (i > 0 && instructors.indexOf(csvSections.get(i - 1).getInstructor()) > order) {
+                i--;
+            }
+            csvSections.add(i, section);
+        }
+        return csvSections;
+    }
+
+    private StringBuilder appendCsvField(String value) {
+        if (!needsQuotes(value)) {
+            return line.append(value);
+        }
+        line.append(QUOTE);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE) {
+                line.append(QUOTE);
+            }
+            line.append(c);
+        }
+        return line.append(QUOTE);
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == CSV_SEPARATOR || c == QUOTE || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * JSON: an array with one object per course (on its own line), holding its offerings and their sections.
+     */
+    private void writeCourseAsJson(Course course) throws IOException {
+        if (!isFirstCourse) {
+            line.append(',');
+            endLine();
+        }
+        line.append("{\"subject\":");
+        appendJsonString(course.getDepartment().getName());
+        line.append(",\"catalogNumber\":");
+        appendJsonString(course.getCatalogNumber());
+        line.append(",\"offerings\":[");
+
+        boolean isFirstOffering = true;
+        for (CourseOffering offering : course.offerings()) {
+            if (!isFirstOffering) {
+                line.append(',');
+            }
+            appendOfferingAsJson(offering);
+            isFirstOffering = false;
+        }
+        line.append("]}");
+        flushLine();
+    }
+
+    private void appendOfferingAsJson(CourseOffering offering) throws IOException {
+        line.append("{\"semester\":").append(offering.getSemester().getSemesterCode());
+        line.append(",\"location\":");
+        appendJsonString(offering.getLocation());
+
+        line.append(",\"instructors\":[");
+        boolean isFirst = true;
+        for (String instructor : offering.instructors()) {
+            if (!isFirst) {
+                line.append(',');
+            }
+            appendJsonString(instructor);
+            isFirst = false;
+        }
+
+        line.append("],\"sections\":[");
+        isFirst = true;
+        for (OfferingSection section : offering.components()) {
+            if (!isFirst) {
+                line.append(',');
+            }
+            line.append("{\"type\":");
+            appendJsonString(section.getType());
+            line.append(",\"enrollmentCap\":").append(section.getEnrollmentCap());
+            line.append(",\"enrollmentTotal\":").append(section.getEnrollmentTotal());
+            line.append('}');
+            isFirst = false;
+        }
+        line.append("]}");
+
+        // Keep the builder small for courses with many offerings.
+        if (line.length() >= BUFFER_SIZE) {
+            flushLine();
+        }
+    }
+
+    private void appendJsonString(String value) {
+        line.append(QUOTE);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < ' ') {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append(QUOTE);
+    }
+
+    /*
+     * Output
+     */
+    private void endLine() throws IOException {
+        line.append(LINE_SEPARATOR);
+        flushLine();
+    }
+
+    // Copy the line out through a reused array, rather than making a String of it.
+    private void flushLine() throws IOException {
+        int length = line.length();
+        if (lineChars.length < length) {
+            lineChars = new char[Math.max(length, lineChars.length * 2)];
+        }
+        line.getChars(0, length, lineChars, 0);
+        out.write(lineChars, 0, length);
+        line.setLength(0);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+}
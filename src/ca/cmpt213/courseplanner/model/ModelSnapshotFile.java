@@ -0,0 +1,288 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Save the loaded model to a compact binary snapshot file, and load it back much faster than re-parsing the CSV file it
+ * came from. The snapshot records the size and modification time of its source file so a stale snapshot can be
+ * detected.
+ *
+ * File layout (all numbers big-endian ints unless noted):
+ *
+ * <pre>
+ * header:  MAGIC, VERSION, source length (long), source last-modified (long)
+ * body:    string dictionary: count, then (byte length, UTF-8 bytes) per string
+ *          departments: count, then per department: name, course count, courses
+ *          course:      catalog number, offering count, offerings
+ *          offering:    semester code, location, instructor count, instructors, section count, sections
+ *          section:     type, enrollment cap, enrollment total, instructor
+ * trailer: CRC32 of the body
+ * </pre>
+ *
+ * All strings in the body are codes into the string dictionary.
+ */
+public class ModelSnapshotFile {
+    private static final int MAGIC = 0x43505331; // "CPS1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+    private static final int TRAILER_SIZE = 4;
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    // Smallest sizes of the body's items (in bytes), for checking the counts read from a snapshot.
+    private static final int INT_SIZE = 4;
+    private static final int DEPARTMENT_MIN_SIZE = 2 * INT_SIZE;
+    private static final int COURSE_MIN_SIZE = 2 * INT_SIZE;
+    private static final int OFFERING_MIN_SIZE = 4 * INT_SIZE;
+    private static final int SECTION_SIZE = 4 * INT_SIZE;
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    public static boolean isUpToDate(File snapshotFile, File sourceFile) {
+        if (!snapshotFile.isFile() || !sourceFile.isFile()) {
+            return false;
+        }
+        try (FileChannel channel = new FileInputStream(snapshotFile).getChannel()) {
+            if (channel.size() < HEADER_SIZE + TRAILER_SIZE) {
+                return false;
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            return header.getInt() == MAGIC
+                    && header.getInt() == VERSION
+                    && header.getLong() == sourceFile.length()
+                    && header.getLong() == sourceFile.lastModified();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /*
+     * Saving
+     */
+    /**
+     * Save a snapshot by writing a temporary file beside it, then moving that over the snapshot file, so a snapshot is
+     * never left partly written.
+     */
+    public static void save(Iterable<Department> departments, File snapshotFile, File sourceFile) throws IOException {
+        File directory = snapshotFile.getAbsoluteFile().getParentFile();
+        File tempFile = File.createTempFile(snapshotFile.getName() + ".", TEMP_FILE_SUFFIX, directory);
+        try {
+            write(departments, tempFile, sourceFile);
+            Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private static void write(Iterable<Department> departments, File snapshotFile, File sourceFile)
+            throws IOException {
+        CodeDictionary strings = makeStringDictionary(departments);
+
+        try (FileOutputStream fileOutput = new FileOutputStream(snapshotFile)) {
+            BufferedOutputStream bufferedOutput = new BufferedOutputStream(fileOutput, OUTPUT_BUFFER_SIZE);
+            DataOutputStream header = new DataOutputStream(bufferedOutput);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeLong(sourceFile.length());
+            header.writeLong(sourceFile.lastModified());
+
+            CheckedOutputStream checkedOutput = new CheckedOutputStream(bufferedOutput, new CRC32());
+            DataOutputStream body = new DataOutputStream(checkedOutput);
+            writeStrings(body, strings);
+            writeDepartments(body, departments, strings);
+            body.flush();
+
+            header.writeInt((int) checkedOutput.getChecksum().getValue());
+            header.flush();
+        }
+    }
+
+    private static CodeDictionary makeStringDictionary(Iterable<Department> departments) {
+        CodeDictionary strings = new CodeDictionary();
+        for (Department department : departments) {
+            strings.findOrAddCode(department.getName());
+            for (Course course : department.courses()) {
+                strings.findOrAddCode(course.getCatalogNumber());
+                for (CourseOffering offering : course.offerings()) {
+                    strings.findOrAddCode(offering.getLocation());
+                    for (String instructor : offering.instructors()) {
+                        strings.findOrAddCode(instructor);
+                    }
+                    for (OfferingSection section : offering.components()) {
+                        strings.findOrAddCode(section.getType());
+                        strings.findOrAddCode(section.getInstructor());
+                    }
+                }
+            }
+        }
+        return strings;
+    }
+
+    private static void writeStrings(DataOutputStream out, CodeDictionary strings) throws IOException {
+        out.writeInt(strings.size());
+        for (int code = 0; code < strings.size(); code++) {
+            byte[] bytes = strings.getValue(code).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static void writeDepartments(DataOutputStream out, Iterable<Department> departments, CodeDictionary strings) throws IOException {
+        out.writeInt(countOf(departments));
+        for (Department department : departments) {
+            out.writeInt(strings.getCode(department.getName()));
+            out.writeInt(countOf(department.courses()));
+            for (Course course : department.courses()) {
+                writeCourse(out, course, strings);
+            }
+        }
+    }
+
+    private static void writeCourse(DataOutputStream out, Course course, CodeDictionary strings) throws IOException {
+        out.writeInt(strings.getCode(course.getCatalogNumber()));
+        out.writeInt(countOf(course.offerings()));
+        for (CourseOffering offering : course.offerings()) {
+            out.writeInt(offering.getSemester().getSemesterCode());
+            out.writeInt(strings.getCode(offering.getLocation()));
+
+            out.writeInt(offering.instructors().size());
+            for (String instructor : offering.instructors()) {
+                out.writeInt(strings.getCode(instructor));
+            }
+
+            out.writeInt(countOf(offering.components()));
+            for (OfferingSection section : offering.components()) {
+                out.writeInt(strings.getCode(section.getType()));
+                out.writeInt(section.getEnrollmentCap());
+                out.writeInt(section.getEnrollmentTotal());
+                out.writeInt(strings.getCode(section.getInstructor()));
+            }
+        }
+    }
+
+    private static int countOf(Iterable<?> items) {
+        int count = 0;
+        for (Iterator<?> iterator = items.iterator(); iterator.hasNext(); iterator.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /*
+     * Loading
+     */
+
+    /**
+     * Append the contents of a snapshot to departments which are being bulk loaded. The whole file is verified against
+     * its checksum before anything is added.
+     */
+    public static void load(File snapshotFile, DepartmentManager target, StringPool pool) throws IOException {
+        try (FileChannel channel = new FileInputStream(snapshotFile).getChannel()) {
+            if (channel.size() < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IOException("Snapshot file " + snapshotFile + " is truncated.");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            verifyHeader(buffer, snapshotFile);
+            verifyChecksum(buffer, snapshotFile);
+
+            buffer.position(HEADER_SIZE);
+            String[] strings = readStrings(buffer, pool);
+            readDepartments(buffer, target, strings);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Snapshot file " + snapshotFile + " is corrupt.", e);
+        }
+    }
+
+    private static void verifyHeader(MappedByteBuffer buffer, File snapshotFile) throws IOException {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("File " + snapshotFile + " is not a supported snapshot.");
+        }
+    }
+
+    private static void verifyChecksum(MappedByteBuffer buffer, File snapshotFile) throws IOException {
+        int bodyEnd = buffer.limit() - TRAILER_SIZE;
+        buffer.position(HEADER_SIZE);
+        buffer.limit(bodyEnd);
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+
+        buffer.limit(bodyEnd + TRAILER_SIZE);
+        if (buffer.getInt(bodyEnd) != (int) crc.getValue()) {
+            throw new IOException("Snapshot file " + snapshotFile + " failed its checksum.");
+        }
+    }
+
+    /**
+     * Read a count of items, checking that the rest of the file could hold that many items of at least the given size,
+     * so a corrupt count can't cause a huge (or negative) allocation.
+     */
+    private static int readCount(MappedByteBuffer buffer, int minItemSize) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / minItemSize) {
+            throw new IOException("Snapshot has an invalid count (" + count + ").");
+        }
+        return count;
+    }
+
+    private static String[] readStrings(MappedByteBuffer buffer, StringPool pool) throws IOException {
+        String[] strings = new String[readCount(buffer, INT_SIZE)];
+        byte[] bytes = new byte[0];
+        for (int i = 0; i < strings.length; i++) {
+            int length = readCount(buffer, 1);
+            if (bytes.length < length) {
+                bytes = new byte[length * 2];
+            }
+            buffer.get(bytes, 0, length);
+            strings[i] = pool.intern(bytes, 0, length);
+        }
+        return strings;
+    }
+
+    private static void readDepartments(MappedByteBuffer buffer, DepartmentManager target, String[] strings)
+            throws IOException {
+        int numDepartments = readCount(buffer, DEPARTMENT_MIN_SIZE);
+        for (int i = 0; i < numDepartments; i++) {
+            Department department = target.findOrMakeDepartment(strings[buffer.getInt()]);
+            int numCourses = readCount(buffer, COURSE_MIN_SIZE);
+            for (int j = 0; j < numCourses; j++) {
+                readCourse(buffer, department, strings);
+            }
+        }
+    }
+
+    private static void readCourse(MappedByteBuffer buffer, Department department, String[] strings)
+            throws IOException {
+        Course course = department.findOrMakeCourse(strings[buffer.getInt()]);
+        int numOfferings = readCount(buffer, OFFERING_MIN_SIZE);
+        for (int i = 0; i < numOfferings; i++) {
+            Semester semester = Semester.of(buffer.getInt());
+            CourseOffering offering = course.findOrAddNewOffering(semester, strings[buffer.getInt()]);
+
+            // Restore the instructors first so they keep their order.
+            int numInstructors = readCount(buffer, INT_SIZE);
+            for (int j = 0; j < numInstructors; j++) {
+                offering.addInstructor(strings[buffer.getInt()]);
+            }
+
+            int numSections = readCount(buffer, SECTION_SIZE);
+            for (int j = 0; j < numSections; j++) {
+                String type = strings[buffer.getInt()];
+                int enrollmentCap = buffer.getInt();
+                int enrollmentTotal = buffer.getInt();
+                offering.addSection(type, enrollmentCap, enrollmentTotal, strings[buffer.getInt()]);
+            }
+        }
+    }
+}
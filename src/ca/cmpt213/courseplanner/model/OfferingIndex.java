@@ -0,0 +1,259 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Read-only index of every course offering in the model, for answering an OfferingQuery without walking the object
+ * graph. Offerings are numbered densely (in sorted order), per-offering values are stored in primitive columns, and
+ * there is a compressed bitmap of the matching offering numbers for each value of each Dimension and for each
+ * Semester. An InstructorIndex maps each instructor to their offerings.
+ *
+ * Bitmaps may be combined (and(), or(), not()) to select offerings, then counted per value of a dimension; for example,
+ * the CMPT offerings at each campus:
+ *
+ * <pre>
+ * index.countBy(Dimension.CAMPUS, index.getBitmap(Dimension.DEPARTMENT, "CMPT"))
+ * </pre>
+ */
+public class OfferingIndex {
+    public enum Dimension {
+        DEPARTMENT, CAMPUS, COMPONENT
+    }
+
+    private List<CourseOffering> offerings = new ArrayList<CourseOffering>();
+    private int[] courseNumbers;
+    private int[] enrollmentCaps;
+    private int[] enrollmentTotals;
+    private InstructorIndex instructors;
+
+    private CompressedBitmap allOfferings;
+    private Map<Dimension, Map<String, CompressedBitmap>> bitmaps =
+            new EnumMap<Dimension, Map<String, CompressedBitmap>>(Dimension.class);
+    private TreeMap<Semester, CompressedBitmap> semesterBitmaps = new TreeMap<Semester, CompressedBitmap>();
+
+    public static OfferingIndex build(Iterable<Department> departments) {
+        OfferingIndex index = new OfferingIndex();
+        for (Department department : departments) {
+            for (Course course : department.courses()) {
+                for (CourseOffering offering : course.offerings()) {
+                    index.offerings.add(offering);
+                }
+            }
+        }
+        index.buildColumns(departments);
+        return index;
+    }
+
+    // Sections are read from each course's SectionColumnStore, whose offerings are numbered as in the course.
+    private void buildColumns(Iterable<Department> departments) {
+        int size = offerings.size();
+        courseNumbers = new int[size];
+        enrollmentCaps = new int[size];
+        enrollmentTotals = new int[size];
+        InstructorIndex.Builder instructorsBuilder = new InstructorIndex.Builder(size);
+        Map<Dimension, Map<String, CompressedBitmap.Builder>> builders =
+                new EnumMap<Dimension, Map<String, CompressedBitmap.Builder>>(Dimension.class);
+        for (Dimension dimension : Dimension.values()) {
+            builders.put(dimension, new HashMap<String, CompressedBitmap.Builder>());
+        }
+        Map<Semester, CompressedBitmap.Builder> semesterBuilders = new HashMap<Semester, CompressedBitmap.Builder>();
+
+        // Offering numbers only increase, as the bitmap builders require.
+        int id = 0;
+        for (Department department : departments) {
+            for (Course course : department.courses()) {
+                SectionColumnStore sections = course.getSectionColumns();
+                for (int offeringInCourse = 0; offeringInCourse < sections.getNumOfferings(); offeringInCourse++) {
+                    CourseOffering offering = offerings.get(id);
+                    courseNumbers[id] = course.getCourseNumber();
+                    instructorsBuilder.addOffering(id, offering);
+                    int mainSection = sections.getMainSection(offeringInCourse);
+                    if (mainSection >= 0) {
+                        enrollmentCaps[id] = sections.getEnrollmentCap(mainSection);
+                        enrollmentTotals[id] = sections.getEnrollmentTotal(mainSection);
+                    }
+                    for (int row = sections.getFirstSection(offeringInCourse);
+                            row < sections.getEndSection(offeringInCourse); row++) {
+                        findOrAddBuilder(builders.get(Dimension.COMPONENT), sections.getComponentType(row)).add(id);
+                    }
+
+                    findOrAddBuilder(builders.get(Dimension.DEPARTMENT), department.getName()).add(id);
+                    findOrAddBuilder(builders.get(Dimension.CAMPUS), offering.getLocation()).add(id);
+                    findOrAddBuilder(semesterBuilders, offering.getSemester()).add(id);
+                    id++;
+                }
+            }
+        }
+
+        allOfferings = CompressedBitmap.full(size);
+        for (Dimension dimension : Dimension.values()) {
+            bitmaps.put(dimension, buildBitmaps(builders.get(dimension)));
+        }
+        for (Map.Entry<Semester, CompressedBitmap.Builder> entry : semesterBuilders.entrySet()) {
+            semesterBitmaps.put(entry.getKey(), entry.getValue().build());
+        }
+        instructors = instructorsBuilder.build();
+    }
+
+    private <T> CompressedBitmap.Builder findOrAddBuilder(Map<T, CompressedBitmap.Builder> builders, T value) {
+        CompressedBitmap.Builder builder = builders.get(value);
+        if (builder == null) {
+            builder = new CompressedBitmap.Builder(offerings.size());
+            builders.put(value, builder);
+        }
+        return builder;
+    }
+
+    // Values are kept in alphabetical order.
+    private static Map<String, CompressedBitmap> buildBitmaps(Map<String, CompressedBitmap.Builder> builders) {
+        List<String> values = new ArrayList<String>(builders.keySet());
+        Collections.sort(values);
+
+        Map<String, CompressedBitmap> result = new LinkedHashMap<String, CompressedBitmap>();
+        for (String value : values) {
+            result.put(value, builders.get(value).build());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /*
+     * Queries
+     */
+    public List<CourseOffering> find(OfferingQuery query) {
+        return getOfferings(query.evaluate(this));
+    }
+
+    public int count(OfferingQuery query) {
+        return query.evaluate(this).cardinality();
+    }
+
+    public InstructorIndex getInstructors() {
+        return instructors;
+    }
+
+    /**
+     * Find the offerings taught by an instructor (matching the whole name, ignoring case).
+     */
+    public List<CourseOffering> findOfferingsTaughtBy(String instructor) {
+        return getOfferings(instructors.getOfferingBitmap(instructor));
+    }
+
+    /*
+     * Bitmaps of offering numbers
+     */
+    public int size() {
+        return offerings.size();
+    }
+
+    public CompressedBitmap getAllOfferings() {
+        return allOfferings;
+    }
+
+    /**
+     * Get the values of a dimension (such as the campus names), in order.
+     */
+    public List<String> getValues(Dimension dimension) {
+        return new ArrayList<String>(bitmaps.get(dimension).keySet());
+    }
+
+    /**
+     * Get the offerings having a value in a dimension; the bitmap is empty if there are none.
+     */
+    public CompressedBitmap getBitmap(Dimension dimension, String value) {
+        CompressedBitmap bitmap = bitmaps.get(dimension).get(value);
+        return bitmap == null ? CompressedBitmap.empty(size()) : bitmap;
+    }
+
+    /**
+     * Get the semesters having any offerings, in order.
+     */
+    public List<Semester> getSemesters() {
+        return new ArrayList<Semester>(semesterBitmaps.keySet());
+    }
+
+    /**
+     * Get the offerings in a semester; the bitmap is empty if there are none.
+     */
+    public CompressedBitmap getSemesterBitmap(Semester semester) {
+        CompressedBitmap bitmap = semesterBitmaps.get(semester);
+        return bitmap == null ? CompressedBitmap.empty(size()) : bitmap;
+    }
+
+    public CompressedBitmap select(OfferingQuery query) {
+        return query.evaluate(this);
+    }
+
+    public List<CourseOffering> getOfferings(CompressedBitmap selection) {
+        int[] ids = selection.toArray();
+        List<CourseOffering> result = new ArrayList<CourseOffering>(ids.length);
+        for (int id : ids) {
+            result.add(offerings.get(id));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Count the selected offerings having each value of a dimension, for every value in order (including those with
+     * none). An offering with several component types is counted once for each.
+     */
+    public Map<String, Integer> countBy(Dimension dimension, CompressedBitmap selection) {
+        Map<String, Integer> counts = new LinkedHashMap<String, Integer>();
+        for (Map.Entry<String, CompressedBitmap> entry : bitmaps.get(dimension).entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().andCardinality(selection));
+        }
+        return counts;
+    }
+
+    /**
+     * Count the selected offerings in each semester, for every semester in order (including those with none).
+     */
+    public Map<Semester, Integer> countBySemester(CompressedBitmap selection) {
+        Map<Semester, Integer> counts = new LinkedHashMap<Semester, Integer>();
+        for (Map.Entry<Semester, CompressedBitmap> entry : semesterBitmaps.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().andCardinality(selection));
+        }
+        return counts;
+    }
+
+    /*
+     * Access for OfferingQuery.
+     */
+
+    /**
+     * Get the offerings in any semester from first to last (inclusive).
+     */
+    CompressedBitmap getSemesterBitmap(Semester first, Semester last) {
+        CompressedBitmap bitmap = CompressedBitmap.empty(size());
+        if (first.compareTo(last) <= 0) {
+            Map<Semester, CompressedBitmap> range = semesterBitmaps.subMap(first, true, last, true);
+            for (CompressedBitmap semester : range.values()) {
+                bitmap = bitmap.or(semester);
+            }
+        }
+        return bitmap;
+    }
+
+    int getCourseNumber(int id) {
+        return courseNumbers[id];
+    }
+
+    int getEnrollmentCap(int id) {
+        return enrollmentCaps[id];
+    }
+
+    int getEnrollmentTotal(int id) {
+        return enrollmentTotals[id];
+    }
+
+    CompressedBitmap getInstructorBitmap(String nameText) {
+        return instructors.getOfferingBitmapContaining(nameText);
+    }
+
+}
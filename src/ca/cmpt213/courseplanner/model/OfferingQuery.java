@@ -0,0 +1,201 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Composable query over all course offerings, run against an OfferingIndex. Each condition added narrows the query
+ * (conditions are combined with AND); queries may also be combined with anyOf() and excluding(). For example:
+ *
+ * <pre>
+ * new OfferingQuery().inDepartments("CMPT").withCourseNumbers(100, 299).atCampuses("SURREY").withFillRatio(0.9, 2)
+ * </pre>
+ *
+ * Department, semester, campus, component and instructor conditions are answered from the index's bitmaps; the
+ * other conditions check only the offerings that are still matching.
+ */
+public class OfferingQuery {
+    private List<Condition> conditions = new ArrayList<Condition>();
+
+    /**
+     * One condition of a query: gives the matching set without the offerings that do not match.
+     */
+    private interface Condition {
+        CompressedBitmap restrict(CompressedBitmap matches, OfferingIndex index);
+    }
+
+    /**
+     * A condition on each offering's values, checked for the offerings still matching.
+     */
+    private static abstract class OfferingCondition implements Condition {
+        @Override
+        public CompressedBitmap restrict(CompressedBitmap matches, OfferingIndex index) {
+            CompressedBitmap.Builder result = new CompressedBitmap.Builder(matches.size());
+            for (int id : matches.toArray()) {
+                if (matches(index, id)) {
+                    result.add(id);
+                }
+            }
+            return result.build();
+        }
+
+        abstract boolean matches(OfferingIndex index, int id);
+    }
+
+    /**
+     * Match offerings matching any of the given queries.
+     */
+    public static OfferingQuery anyOf(final OfferingQuery... queries) {
+        return new OfferingQuery().addCondition(new Condition() {
+            @Override
+            public CompressedBitmap restrict(CompressedBitmap matches, OfferingIndex index) {
+                CompressedBitmap union = CompressedBitmap.empty(index.size());
+                for (OfferingQuery query : queries) {
+                    union = union.or(query.evaluate(index));
+                }
+                return matches.and(union);
+            }
+        });
+    }
+
+    /**
+     * Only match offerings that do not match another query.
+     */
+    public OfferingQuery excluding(final OfferingQuery other) {
+        return addCondition(new Condition() {
+            @Override
+            public CompressedBitmap restrict(CompressedBitmap matches, OfferingIndex index) {
+                return matches.andNot(other.evaluate(index));
+            }
+        });
+    }
+
+    public OfferingQuery inDepartments(final String... departments) {
+        return addCondition(new Condition() {
+            @Override
+            public CompressedBitmap restrict(CompressedBitmap matches, OfferingIndex index) {
+                return matches.and(unionOf(index, OfferingIndex.Dimension.DEPARTMENT, departments));
+            }
+        });
+    }
+
+    /**
+     * Match offerings of courses numbered from min to max (inclusive), such as 100 to 299 for lower division.
+     */
+    public OfferingQuery withCourseNumbers(final int min, final int max) {
+        return addCondition(new OfferingCondition() {
+            @Override
+            boolean matches(OfferingIndex index, int id) {
+                int courseNumber = index.getCourseNumber(id);
+                return courseNumber >= min && courseNumber <= max;
+            }
+        });
+    }
+
+    /**
+     * Match offerings in any semester from first to last (inclusive).
+     */
+    public OfferingQuery inSemesters(final Semester first, final Semester last) {
+        return addCondition(new Condition() {
+            @Override
+            public CompressedBitmap restrict(CompressedBitmap matches, OfferingIndex index) {
+                return matches.and(index.getSemesterBitmap(first, last));
+            }
+        });
+    }
+
+    public OfferingQuery atCampuses(final String... locations) {
+        return addCondition(new Condition() {
+            @Override
+            public CompressedBitmap restrict(CompressedBitmap matches, OfferingIndex index) {
+                return matches.and(unionOf(index, OfferingIndex.Dimension.CAMPUS, locations));
+            }
+        });
+    }
+
+    /**
+     * Match offerings with a section of the given component type (such as LEC or LAB).
+     */
+    public OfferingQuery withComponent(final String component) {
+        return addCondition(new Condition() {
+            @Override
+            public CompressedBitmap restrict(CompressedBitmap matches, OfferingIndex index) {
+                return matches.and(index.getBitmap(OfferingIndex.Dimension.COMPONENT, component));
+            }
+        });
+    }
+
+    /**
+     * Match offerings with an instructor whose name contains the given text (ignoring case).
+     */
+    public OfferingQuery taughtBy(final String nameText) {
+        return addCondition(new Condition() {
+            @Override
+            public CompressedBitmap restrict(CompressedBitmap matches, OfferingIndex index) {
+                return matches.and(index.getInstructorBitmap(nameText));
+            }
+        });
+    }
+
+    /**
+     * Match offerings whose enrollment (that of their main component, as for CourseStatistics) is from min to max
+     * (inclusive).
+     */
+    public OfferingQuery withEnrollment(final int min, final int max) {
+        return addCondition(new OfferingCondition() {
+            @Override
+            boolean matches(OfferingIndex index, int id) {
+                int enrollment = index.getEnrollmentTotal(id);
+                return enrollment >= min && enrollment <= max;
+            }
+        });
+    }
+
+    /**
+     * Match offerings whose enrollment divided by their enrollment cap is from min to max (inclusive). Offerings with
+     * no cap have a fill ratio of 0.
+     */
+    public OfferingQuery withFillRatio(final double min, final double max) {
+        return addCondition(new OfferingCondition() {
+            @Override
+            boolean matches(OfferingIndex index, int id) {
+                int cap = index.getEnrollmentCap(id);
+                double fillRatio = cap == 0 ? 0 : (double) index.getEnrollmentTotal(id) / cap;
+                return fillRatio >= min && fillRatio <= max;
+            }
+        });
+    }
+
+    private static CompressedBitmap unionOf(OfferingIndex index, OfferingIndex.Dimension dimension, String[] values) {
+        CompressedBitmap union = CompressedBitmap.empty(index.size());
+        for (String value : values) {
+            union = union.or(index.getBitmap(dimension, value));
+        }
+        return union;
+    }
+
+    private OfferingQuery addCondition(Condition condition) {
+        conditions.add(condition);
+        return this;
+    }
+
+    /**
+     * Find the numbers of the matching offerings in the index. Bitmap conditions are applied first, as they narrow
+     * the matches most cheaply.
+     */
+    CompressedBitmap evaluate(OfferingIndex index) {
+        CompressedBitmap matches = index.getAllOfferings();
+        for (Condition condition : conditions) {
+            if (!(condition instanceof OfferingCondition)) {
+                matches = condition.restrict(matches, index);
+            }
+        }
+        for (Condition condition : conditions) {
+            if (condition instanceof OfferingCondition) {
+                matches = condition.restrict(matches, index);
+            }
+        }
+        return matches;
+    }
+
+}
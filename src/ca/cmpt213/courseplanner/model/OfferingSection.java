@@ -7,11 +7,17 @@ public class OfferingSection implements Comparable<OfferingSection> {
     private String type;
     private int enrollmentCap;
     private int enrollmentTotal;
+    private String instructor;
 
     public OfferingSection(String type, int enrollmentCap, int enrllomentTotal) {
+        this(type, enrollmentCap, enrllomentTotal, "");
+    }
+
+    public OfferingSection(String type, int enrollmentCap, int enrllomentTotal, String instructor) {
         this.type = type;
         this.enrollmentCap = enrollmentCap;
         this.enrollmentTotal = enrllomentTotal;
+        this.instructor = instructor;
     }
 
     public String getType() {
@@ -26,6 +32,11 @@ public class OfferingSection implements Comparable<OfferingSection> {
         return enrollmentTotal;
     }
 
+    // The instructor listed on the data row which created this section.
+    public String getInstructor() {
+        return instructor;
+    }
+
     public void addToSection(int enrollmentCap, int enrollmentTotal) {
         this.enrollmentCap += enrollmentCap;
         this.enrollmentTotal += enrollmentTotal;
@@ -0,0 +1,173 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Column-oriented, read-only store of the published sections of one course's offerings; the course's offerings hold no
+ * section objects of their own. Each section is one row across parallel int arrays (enrollment cap, enrollment total,
+ * and dictionary-coded component type and instructor), and each offering's sections are a contiguous run of rows, in
+ * the order of the course's published offerings. The row of each offering's main component is also stored, so
+ * statistics and the OfferingIndex read only the columns they need.
+ *
+ * A course builds a new store when it is published with new sections; the rows handed out by an old store never
+ * change.
+ */
+class SectionColumnStore {
+    static final SectionColumnStore EMPTY = build(Collections.<CourseOffering> emptyList());
+
+    private static final String LECTURE = "LEC";
+    private static final int NO_SECTION = -1;
+
+    // Offering i's sections are rows sectionStarts[i] to sectionStarts[i + 1] - 1.
+    private int[] sectionStarts;
+    private int[] mainSections;
+
+    private int[] componentCodes;
+    private int[] enrollmentCaps;
+    private int[] enrollmentTotals;
+    private int[] instructorCodes;
+    private String[] componentTypes;
+    private String[] instructors;
+
+    private SectionColumnStore() {
+    }
+
+    /**
+     * Store the current sections of the offerings (including changes not yet published), sorting each offering's
+     * sections by type.
+     */
+    static SectionColumnStore build(List<CourseOffering> offerings) {
+        SectionColumnStore store = new SectionColumnStore();
+        int numOfferings = offerings.size();
+        store.sectionStarts = new int[numOfferings + 1];
+        store.mainSections = new int[numOfferings];
+        List<List<OfferingSection>> sectionsPerOffering = new ArrayList<List<OfferingSection>>(numOfferings);
+        for (int i = 0; i < numOfferings; i++) {
+            List<OfferingSection> sections = offerings.get(i).sortCurrentSections();
+            sectionsPerOffering.add(sections);
+            store.sectionStarts[i + 1] = store.sectionStarts[i] + sections.size();
+        }
+
+        int numSections = store.sectionStarts[numOfferings];
+        store.componentCodes = new int[numSections];
+        store.enrollmentCaps = new int[numSections];
+        store.enrollmentTotals = new int[numSections];
+        store.instructorCodes = new int[numSections];
+        CodeDictionary componentDictionary = new CodeDictionary();
+        CodeDictionary instructorDictionary = new CodeDictionary();
+        for (int i = 0; i < numOfferings; i++) {
+            int row = store.sectionStarts[i];
+            for (OfferingSection section : sectionsPerOffering.get(i)) {
+                store.componentCodes[row] = componentDictionary.findOrAddCode(section.getType());
+                store.enrollmentCaps[row] = section.getEnrollmentCap();
+                store.enrollmentTotals[row] = section.getEnrollmentTotal();
+                store.instructorCodes[row] = instructorDictionary.findOrAddCode(section.getInstructor());
+                row++;
+            }
+        }
+        store.componentTypes = toArray(componentDictionary);
+        store.instructors = toArray(instructorDictionary);
+        for (int i = 0; i < numOfferings; i++) {
+            store.mainSections[i] = store.findMainSection(i);
+        }
+        return store;
+    }
+
+    private static String[] toArray(CodeDictionary dictionary) {
+        String[] values = new String[dictionary.size()];
+        for (int code = 0; code < values.length; code++) {
+            values[code] = dictionary.getValue(code);
+        }
+        return values;
+    }
+
+    // The component that an offering's students all take: its lecture, or else its component with the most students.
+    // Other components (such as labs and tutorials) hold the same students again.
+    private int findMainSection(int offering) {
+        int mainSection = NO_SECTION;
+        for (int row = sectionStarts[offering]; row < sectionStarts[offering + 1]; row++) {
+            if (componentTypes[componentCodes[row]].equals(LECTURE)) {
+                return row;
+            }
+            if (mainSection == NO_SECTION || enrollmentTotals[row] > enrollmentTotals[mainSection]) {
+                mainSection = row;
+            }
+        }
+        return mainSection;
+    }
+
+    /*
+     * Offerings, numbered as in the course's published offerings.
+     */
+    int getNumOfferings() {
+        return mainSections.length;
+    }
+
+    int getFirstSection(int offering) {
+        return sectionStarts[offering];
+    }
+
+    int getEndSection(int offering) {
+        return sectionStarts[offering + 1];
+    }
+
+    /**
+     * Get the row of an offering's main component, or -1 if it has no sections.
+     */
+    int getMainSection(int offering) {
+        return mainSections[offering];
+    }
+
+    /**
+     * Get an unmodifiable view of an offering's sections, which makes a new OfferingSection from a row each time one is
+     * read.
+     */
+    List<OfferingSection> getSections(final int offering) {
+        return new AbstractList<OfferingSection>() {
+            @Override
+            public OfferingSection get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Section " + index + " of " + size());
+                }
+                int row = sectionStarts[offering] + index;
+                return new OfferingSection(getComponentType(row), enrollmentCaps[row], enrollmentTotals[row],
+                        instructors[instructorCodes[row]]);
+            }
+
+            @Override
+            public int size() {
+                return sectionStarts[offering + 1] - sectionStarts[offering];
+            }
+        };
+    }
+
+    /*
+     * Sections
+     */
+    int getNumComponentTypes() {
+        return componentTypes.length;
+    }
+
+    int getComponentCode(int row) {
+        return componentCodes[row];
+    }
+
+    String getComponentType(int row) {
+        return componentTypes[componentCodes[row]];
+    }
+
+    String getComponentTypeOfCode(int code) {
+        return componentTypes[code];
+    }
+
+    int getEnrollmentCap(int row) {
+        return enrollmentCaps[row];
+    }
+
+    int getEnrollmentTotal(int row) {
+        return enrollmentTotals[row];
+    }
+}
@@ -1,31 +1,54 @@
 package ca.cmpt213.courseplanner.model;
 
 /**
- * Represent a specific semester, such as Spring 2013.
+ * Represent a specific semester, such as Spring 2013. Semesters are immutable flyweights: Semester.of() returns a shared
+ * instance from a table of all semesters between the base year and MAX_CACHED_YEAR, and only allocates for semesters
+ * outside that range.
  */
 public class Semester implements Comparable<Semester> {
     private static final int SEMESTER_CODE_BASE_YEAR = 1900;
     private static final int SEMESTER_CODE_OFFSET = 10;
+    private static final int MAX_CACHED_YEAR = 2099;
 
     public static final int SEMESTER_NUMBER_SPRING = 1;
     public static final int SEMESTER_NUMBER_SUMMER = 4;
     public static final int SEMESTER_NUMBER_FALL = 7;
+    private static final int[] SEMESTER_NUMBERS = { SEMESTER_NUMBER_SPRING, SEMESTER_NUMBER_SUMMER, SEMESTER_NUMBER_FALL };
+    public static final int NUM_TERMS = SEMESTER_NUMBERS.length;
 
-    private int year;
-    private int semesterNumber;
+    private static final Semester[] cache = makeCache();
 
-    public Semester(int semesterCode) {
-        semesterNumber = semesterCode % SEMESTER_CODE_OFFSET;
-        year = semesterCode / SEMESTER_CODE_OFFSET + SEMESTER_CODE_BASE_YEAR;
-    }
+    private final int year;
+    private final int semesterNumber;
 
-    public Semester(int semesterNumber, int year) {
+    private Semester(int semesterNumber, int year) {
         this.year = year;
         this.semesterNumber = semesterNumber;
     }
 
-    public Semester(String semesterStr) {
-        this(Integer.parseInt(semesterStr));
+    private static Semester[] makeCache() {
+        int numCodes = (MAX_CACHED_YEAR - SEMESTER_CODE_BASE_YEAR + 1) * SEMESTER_CODE_OFFSET;
+        Semester[] semesters = new Semester[numCodes];
+        for (int year = SEMESTER_CODE_BASE_YEAR; year <= MAX_CACHED_YEAR; year++) {
+            for (int semesterNumber : SEMESTER_NUMBERS) {
+                Semester semester = new Semester(semesterNumber, year);
+                semesters[semester.getSemesterCode()] = semester;
+            }
+        }
+        return semesters;
+    }
+
+    public static Semester of(int semesterCode) {
+        if (semesterCode >= 0 && semesterCode < cache.length && cache[semesterCode] != null) {
+            return cache[semesterCode];
+        }
+        int semesterNumber = semesterCode % SEMESTER_CODE_OFFSET;
+        int year = semesterCode / SEMESTER_CODE_OFFSET + SEMESTER_CODE_BASE_YEAR;
+        return new Semester(semesterNumber, year);
+    }
+
+    public static Semester of(int semesterNumber, int year) {
+        return of((year - SEMESTER_CODE_BASE_YEAR) * SEMESTER_CODE_OFFSET + semesterNumber);
     }
 
     public int getSemesterCode() {
@@ -40,6 +63,19 @@ public class Semester implements Comparable<Semester> {
         return semesterNumber;
     }
 
+    /**
+     * Get the position of the semester in its year: 0 for spring, 1 for summer and 2 for fall (or -1 for an unknown
+     * semester number).
+     */
+    public int getTermIndex() {
+        for (int i = 0; i < NUM_TERMS; i++) {
+            if (SEMESTER_NUMBERS[i] == semesterNumber) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     public Semester getNextSemester() {
         int newSemester = semesterNumber;
         int newYear = year;
@@ -57,7 +93,7 @@ public class Semester implements Comparable<Semester> {
         default:
             assert false;
         }
-        return new Semester(newSemester, newYear);
+        return of(newSemester, newYear);
     }
 
     public boolean isSpring() {
@@ -98,6 +134,11 @@ public class Semester implements Comparable<Semester> {
         return compareTo((Semester) other) == 0;
     }
 
+    @Override
+    public int hashCode() {
+        return getSemesterCode();
+    }
+
     @Override
     public String toString() {
         return String.valueOf(getSemesterCode());
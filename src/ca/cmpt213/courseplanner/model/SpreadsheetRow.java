@@ -0,0 +1,110 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.util.Arrays;
+
+/**
+ * One row of a spreadsheet, holding each cell as either text or a number. Spreadsheet readers reuse one row object for
+ * every row of the sheet, and text cells hold canonical Strings from the reader's StringPool.
+ */
+public class SpreadsheetRow implements DataRow {
+    private static final int INITIAL_NUM_FIELDS = 16;
+    private static final String JOIN_SEPARATOR = ", ";
+
+    private StringPool pool;
+    private String[] text = new String[INITIAL_NUM_FIELDS];
+    private double[] numbers = new double[INITIAL_NUM_FIELDS];
+    private boolean[] isNumber = new boolean[INITIAL_NUM_FIELDS];
+    private int numFields = 0;
+
+    public SpreadsheetRow(StringPool pool) {
+        this.pool = pool;
+    }
+
+    void clear() {
+        Arrays.fill(text, 0, numFields, null);
+        Arrays.fill(isNumber, 0, numFields, false);
+        numFields = 0;
+    }
+
+    void setText(int column, String value) {
+        ensureColumn(column);
+        text[column] = value;
+        isNumber[column] = false;
+    }
+
+    void setNumber(int column, double value) {
+        ensureColumn(column);
+        numbers[column] = value;
+        isNumber[column] = true;
+    }
+
+    private void ensureColumn(int column) {
+        if (column >= text.length) {
+            int newLength = Math.max(column + 1, text.length * 2);
+            text = Arrays.copyOf(text, newLength);
+            numbers = Arrays.copyOf(numbers, newLength);
+            isNumber = Arrays.copyOf(isNumber, newLength);
+        }
+        numFields = Math.max(numFields, column + 1);
+    }
+
+    @Override
+    public int getNumberFields() {
+        return numFields;
+    }
+
+    @Override
+    public String get(int column) {
+        if (column >= numFields) {
+            return "";
+        }
+        if (isNumber[column]) {
+            return formatNumber(numbers[column]);
+        }
+        return text[column] == null ? "" : text[column];
+    }
+
+    private static String formatNumber(double number) {
+        if (number == Math.rint(number) && Math.abs(number) < Long.MAX_VALUE) {
+            return Long.toString((long) number);
+        }
+        return Double.toString(number);
+    }
+
+    @Override
+    public String getPooled(int column) {
+        if (column < numFields && isNumber[column]) {
+            return pool.intern(formatNumber(numbers[column]));
+        }
+        return get(column);
+    }
+
+    @Override
+    public String getPooledRemaining(int firstColumn) {
+        StringBuilder joined = new StringBuilder();
+        for (int column = firstColumn; column < numFields; column++) {
+            String value = get(column);
+            if (value.isEmpty()) {
+                continue;
+            }
+            if (joined.length() > 0) {
+                joined.append(JOIN_SEPARATOR);
+            }
+            joined.append(value);
+        }
+        return pool.intern(joined.toString());
+    }
+
+    @Override
+    public int getInt(int column) {
+        if (column < numFields && isNumber[column]) {
+            return (int) numbers[column];
+        }
+        try {
+            return Integer.parseInt(get(column).trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Number conversion problem for string '" + get(column) + "'");
+            return 0;
+        }
+    }
+}
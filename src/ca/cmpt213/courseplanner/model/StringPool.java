@@ -0,0 +1,103 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Dictionary keeping one canonical String for each distinct value read from data files, so that repeated values (such
+ * as locations, component types and instructors) share a single instance across the whole model. Values are looked up
+ * directly from their encoded bytes, so a value that has been seen before costs no allocation. Not thread safe.
+ */
+public class StringPool {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    private byte[][] keys = new byte[INITIAL_CAPACITY][];
+    private String[] values = new String[INITIAL_CAPACITY];
+    private int size = 0;
+
+    public String intern(byte[] bytes, int start, int length) {
+        int mask = keys.length - 1;
+        int index = hash(bytes, start, length) & mask;
+        while (keys[index] != null) {
+            if (matches(keys[index], bytes, start, length)) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+
+        String value = new String(bytes, start, length, CHARSET);
+        insert(index, Arrays.copyOfRange(bytes, start, start + length), value);
+        return value;
+    }
+
+    public String intern(String value) {
+        byte[] bytes = value.getBytes(CHARSET);
+        int mask = keys.length - 1;
+        int index = hash(bytes, 0, bytes.length) & mask;
+        while (keys[index] != null) {
+            if (matches(keys[index], bytes, 0, bytes.length)) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+
+        insert(index, bytes, value);
+        return value;
+    }
+
+    private void insert(int index, byte[] key, String value) {
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        if (size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int hash(byte[] bytes, int start, int length) {
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        // Spread the high bits down, as the table index only uses the low bits.
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(byte[] key, byte[] bytes, int start, int length) {
+        if (key.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key[i] != bytes[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void grow() {
+        byte[][] oldKeys = keys;
+        String[] oldValues = values;
+        keys = new byte[oldKeys.length * 2][];
+        values = new String[oldValues.length * 2];
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) {
+                continue;
+            }
+            int index = hash(oldKeys[i], 0, oldKeys[i].length) & mask;
+            while (keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = oldKeys[i];
+            values[index] = oldValues[i];
+        }
+    }
+}
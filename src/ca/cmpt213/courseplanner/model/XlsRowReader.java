@@ -0,0 +1,328 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Read the rows of the first worksheet of an Excel 97-2003 (.xls, BIFF8) workbook. The workbook stream is read one
+ * BIFF record at a time into a reused buffer, and rows are returned as their cells are reached, so only the shared
+ * string table and the current row are held in memory.
+ */
+public class XlsRowReader implements DataRowReader {
+    private static final String WORKBOOK_STREAM_NAME = "Workbook";
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private static final int RECORD_HEADER_SIZE = 4;
+    private static final int MAX_RECORD_SIZE = 0xFFFF;
+
+    private static final int RECORD_BOF = 0x0809;
+    private static final int RECORD_EOF = 0x000A;
+    private static final int RECORD_SST = 0x00FC;
+    private static final int RECORD_CONTINUE = 0x003C;
+    private static final int RECORD_LABEL_SST = 0x00FD;
+    private static final int RECORD_LABEL = 0x0204;
+    private static final int RECORD_NUMBER = 0x0203;
+    private static final int RECORD_RK = 0x027E;
+    private static final int RECORD_MULRK = 0x00BD;
+    private static final int RECORD_FORMULA = 0x0006;
+    private static final int RECORD_STRING = 0x0207;
+    private static final int RECORD_ROW = 0x0208;
+    private static final int RECORD_BOOLERR = 0x0205;
+
+    private static final int BOF_TYPE_WORKSHEET = 0x0010;
+    private static final int FORMULA_NON_NUMERIC_MARKER = 0xFFFF;
+    private static final int FORMULA_RESULT_STRING = 0;
+
+    private static final int STRING_FLAG_HIGH_BYTE = 0x01;
+    private static final int STRING_FLAG_EXTENDED = 0x04;
+    private static final int STRING_FLAG_RICH = 0x08;
+
+    private CompoundDocument document;
+    private InputStream workbook;
+    private byte[] recordData = new byte[MAX_RECORD_SIZE];
+    private ByteBuffer record = ByteBuffer.wrap(recordData).order(ByteOrder.LITTLE_ENDIAN);
+    private int recordType;
+    private int recordLength;
+    private boolean hasPendingRecord = false;
+    private boolean endOfSheet = false;
+    private long bytesRead = 0;
+    private long fileLength;
+
+    private StringPool pool;
+    private String[] sharedStrings = new String[0];
+    private SpreadsheetRow row;
+    private List<String> columnNames;
+    private int currentRowNumber = -1;
+
+    public XlsRowReader(File file, StringPool pool) throws IOException {
+        this.pool = pool;
+        row = new SpreadsheetRow(pool);
+        fileLength = file.length();
+        document = new CompoundDocument(file);
+        try {
+            workbook = new BufferedInputStream(document.openStream(WORKBOOK_STREAM_NAME), STREAM_BUFFER_SIZE);
+            readWorkbookGlobals();
+            skipToFirstWorksheet();
+            readHeader();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void readHeader() throws IOException {
+        columnNames = ColumnMapping.readColumnNames(nextLine());
+    }
+
+    @Override
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /*
+     * Workbook structure
+     */
+    private void readWorkbookGlobals() throws IOException {
+        while (readRecord() && recordType != RECORD_EOF) {
+            if (recordType == RECORD_SST) {
+                readSharedStrings();
+            }
+        }
+    }
+
+    private void skipToFirstWorksheet() throws IOException {
+        while (readRecord()) {
+            if (recordType == RECORD_BOF && record.getShort(2) == BOF_TYPE_WORKSHEET) {
+                return;
+            }
+        }
+        endOfSheet = true;
+    }
+
+    private boolean readRecord() throws IOException {
+        record.clear();
+        if (!readFully(recordData, RECORD_HEADER_SIZE)) {
+            return false;
+        }
+        recordType = record.getShort(0) & 0xFFFF;
+        recordLength = record.getShort(2) & 0xFFFF;
+        if (!readFully(recordData, recordLength)) {
+            throw new IOException("Workbook stream ends in the middle of a record.");
+        }
+        record.limit(recordLength);
+        return true;
+    }
+
+    private boolean readFully(byte[] destination, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int bytesRead = workbook.read(destination, total, length - total);
+            if (bytesRead < 0) {
+                return false;
+            }
+            total += bytesRead;
+            this.bytesRead += bytesRead;
+        }
+        return true;
+    }
+
+    /*
+     * Rows
+     */
+    // The workbook stream makes up nearly all of the file.
+    @Override
+    public double getFractionRead() {
+        return fileLength == 0 ? 1 : Math.min(1, (double) bytesRead / fileLength);
+    }
+
+    @Override
+    public DataRow nextLine() throws IOException {
+        row.clear();
+        while (!endOfSheet && (hasPendingRecord || readRecord())) {
+            hasPendingRecord = false;
+            if (recordType == RECORD_EOF) {
+                endOfSheet = true;
+                break;
+            }
+            if (!isCellRecord(recordType)) {
+                continue;
+            }
+
+            // Cells are stored in row order, so the first cell of the next row ends this row.
+            int rowNumber = record.getShort(0) & 0xFFFF;
+            if (rowNumber != currentRowNumber && row.getNumberFields() > 0) {
+                hasPendingRecord = true;
+                currentRowNumber = rowNumber;
+                return row;
+            }
+            currentRowNumber = rowNumber;
+            readCell();
+        }
+        return row.getNumberFields() > 0 ? row : null;
+    }
+
+    private static boolean isCellRecord(int type) {
+        return type == RECORD_LABEL_SST || type == RECORD_LABEL || type == RECORD_NUMBER || type == RECORD_RK
+                || type == RECORD_MULRK || type == RECORD_FORMULA || type == RECORD_BOOLERR;
+    }
+
+    private void readCell() throws IOException {
+        int column = record.getShort(2) & 0xFFFF;
+        switch (recordType) {
+        case RECORD_LABEL_SST:
+            row.setText(column, getSharedString(record.getInt(6)));
+            break;
+        case RECORD_LABEL:
+            record.position(6);
+            row.setText(column, pool.intern(readString(record.getShort() & 0xFFFF)));
+            break;
+        case RECORD_NUMBER:
+            row.setNumber(column, record.getDouble(6));
+            break;
+        case RECORD_RK:
+            row.setNumber(column, decodeRk(record.getInt(6)));
+            break;
+        case RECORD_MULRK:
+            int numCells = (recordLength - 6) / 6;
+            for (int i = 0; i < numCells; i++) {
+                row.setNumber(column + i, decodeRk(record.getInt(6 + i * 6)));
+            }
+            break;
+        case RECORD_FORMULA:
+            readFormulaResult(column);
+            break;
+        case RECORD_BOOLERR:
+            row.setNumber(column, recordData[6]);
+            break;
+        default:
+            assert false;
+        }
+    }
+
+    private void readFormulaResult(int column) throws IOException {
+        if ((record.getShort(12) & 0xFFFF) != FORMULA_NON_NUMERIC_MARKER) {
+            row.setNumber(column, record.getDouble(6));
+        } else if (recordData[6] == FORMULA_RESULT_STRING) {
+            // The text of a string result is in the STRING record which follows (before the next cell or row).
+            while (readRecord()) {
+                if (recordType == RECORD_STRING) {
+                    record.position(0);
+                    row.setText(column, pool.intern(readString(record.getShort() & 0xFFFF)));
+                    return;
+                }
+                if (isCellRecord(recordType) || recordType == RECORD_ROW || recordType == RECORD_EOF) {
+                    hasPendingRecord = true;
+                    return;
+                }
+            }
+        }
+    }
+
+    private String getSharedString(int index) throws IOException {
+        if (index < 0 || index >= sharedStrings.length) {
+            throw new IOException("Shared string index " + index + " is out of range (" + sharedStrings.length
+                    + " strings) in workbook.");
+        }
+        return sharedStrings[index];
+    }
+
+    private static double decodeRk(int rk) {
+        double value;
+        if ((rk & 0x02) != 0) {
+            value = rk >> 2;
+        } else {
+            value = Double.longBitsToDouble(((long) (rk & 0xFFFFFFFC)) << 32);
+        }
+        if ((rk & 0x01) != 0) {
+            value /= 100;
+        }
+        return value;
+    }
+
+    /*
+     * Strings
+     */
+
+    // Read a string of the given number of characters, starting at its option flags, within the current record.
+    private String readString(int numChars) {
+        int flags = record.get();
+        int bytesPerChar = (flags & STRING_FLAG_HIGH_BYTE) != 0 ? 2 : 1;
+        int position = record.position();
+        if ((flags & STRING_FLAG_RICH) != 0) {
+            position += 2;
+        }
+        if ((flags & STRING_FLAG_EXTENDED) != 0) {
+            position += 4;
+        }
+        return decodeChars(position, numChars * bytesPerChar, bytesPerChar);
+    }
+
+    private String decodeChars(int position, int numBytes, int bytesPerChar) {
+        if (bytesPerChar == 2) {
+            return new String(recordData, position, numBytes, StandardCharsets.UTF_16LE);
+        }
+        return new String(recordData, position, numBytes, StandardCharsets.ISO_8859_1);
+    }
+
+    // The shared string table may span the SST record and any number of CONTINUE records which follow it.
+    private void readSharedStrings() throws IOException {
+        int numStrings = record.getInt(4);
+        sharedStrings = new String[numStrings];
+        record.position(8);
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < numStrings; i++) {
+            if (!record.hasRemaining()) {
+                readContinueRecord();
+            }
+            int numChars = record.getShort() & 0xFFFF;
+            int flags = record.get();
+            int numRichRuns = (flags & STRING_FLAG_RICH) != 0 ? record.getShort() & 0xFFFF : 0;
+            int extendedSize = (flags & STRING_FLAG_EXTENDED) != 0 ? record.getInt() : 0;
+
+            text.setLength(0);
+            while (text.length() < numChars) {
+                if (!record.hasRemaining()) {
+                    // Characters continued in a new record start with a fresh option flags byte.
+                    readContinueRecord();
+                    flags = record.get();
+                }
+                int bytesPerChar = (flags & STRING_FLAG_HIGH_BYTE) != 0 ? 2 : 1;
+                int charsHere = Math.min(numChars - text.length(), record.remaining() / bytesPerChar);
+                text.append(decodeChars(record.position(), charsHere * bytesPerChar, bytesPerChar));
+                record.position(record.position() + charsHere * bytesPerChar);
+            }
+            sharedStrings[i] = pool.intern(text.toString());
+
+            skipSharedStringBytes(numRichRuns * 4 + extendedSize);
+        }
+    }
+
+    private void skipSharedStringBytes(int numBytes) throws IOException {
+        while (numBytes > 0) {
+            if (!record.hasRemaining()) {
+                readContinueRecord();
+            }
+            int skip = Math.min(numBytes, record.remaining());
+            record.position(record.position() + skip);
+            numBytes -= skip;
+        }
+    }
+
+    private void readContinueRecord() throws IOException {
+        if (!readRecord() || recordType != RECORD_CONTINUE) {
+            throw new IOException("Shared string table is truncated.");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        document.close();
+    }
+}
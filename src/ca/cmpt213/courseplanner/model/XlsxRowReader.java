@@ -0,0 +1,269 @@
+package ca.cmpt213.courseplanner.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Read the rows of the first worksheet of an Excel 2007+ (.xlsx) workbook. The worksheet's XML is streamed out of the
+ * zip file with a StAX parser, so only the shared string table and the current row are held in memory.
+ */
+public class XlsxRowReader implements DataRowReader {
+    private static final String WORKBOOK_PATH = "xl/workbook.xml";
+    private static final String WORKBOOK_RELATIONSHIPS_PATH = "xl/_rels/workbook.xml.rels";
+    private static final String SHARED_STRINGS_PATH = "xl/sharedStrings.xml";
+    private static final String DEFAULT_SHEET_PATH = "xl/worksheets/sheet1.xml";
+    private static final String WORKBOOK_FOLDER = "xl/";
+    private static final String RELATIONSHIPS_NAMESPACE = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private static final String CELL_TYPE_SHARED_STRING = "s";
+    private static final String CELL_TYPE_INLINE_STRING = "inlineStr";
+    private static final String CELL_TYPE_FORMULA_STRING = "str";
+    private static final String CELL_TYPE_ERROR = "e";
+
+    private static final int LETTERS_IN_ALPHABET = 26;
+
+    private ZipFile zipFile;
+    private XMLInputFactory xmlFactory;
+    private XMLStreamReader sheet;
+    private long sheetSize;
+    private String[] sharedStrings;
+    private StringPool pool;
+    private SpreadsheetRow row;
+    private List<String> columnNames;
+
+    public XlsxRowReader(File file, StringPool pool) throws IOException {
+        this.pool = pool;
+        row = new SpreadsheetRow(pool);
+        zipFile = new ZipFile(file);
+        xmlFactory = XMLInputFactory.newInstance();
+        xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        try {
+            sharedStrings = readSharedStrings();
+            String sheetPath = findFirstSheetPath();
+            sheet = openXml(sheetPath);
+            sheetSize = zipFile.getEntry(sheetPath).getSize();
+            readHeader();
+        } catch (XMLStreamException | IOException e) {
+            close();
+            throw asIOException(e, file);
+        }
+    }
+
+    private void readHeader() throws IOException {
+        columnNames = ColumnMapping.readColumnNames(nextLine());
+    }
+
+    @Override
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    // Sheet XML is almost entirely ASCII, so its character offset is close to its (uncompressed) byte offset.
+    @Override
+    public double getFractionRead() {
+        int offset = sheet.getLocation().getCharacterOffset();
+        if (sheetSize <= 0 || offset < 0) {
+            return 0;
+        }
+        return Math.min(1, (double) offset / sheetSize);
+    }
+
+    @Override
+    public DataRow nextLine() throws IOException {
+        try {
+            while (sheet.hasNext()) {
+                if (sheet.next() == XMLStreamConstants.START_ELEMENT && sheet.getLocalName().equals("row")) {
+                    readRow();
+                    if (row.getNumberFields() > 0) {
+                        return row;
+                    }
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw asIOException(e, new File(zipFile.getName()));
+        }
+    }
+
+    private void readRow() throws XMLStreamException, IOException {
+        row.clear();
+        int nextColumn = 0;
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.START_ELEMENT && sheet.getLocalName().equals("c")) {
+                nextColumn = readCell(nextColumn);
+            } else if (event == XMLStreamConstants.END_ELEMENT && sheet.getLocalName().equals("row")) {
+                return;
+            }
+        }
+    }
+
+    private int readCell(int defaultColumn) throws XMLStreamException, IOException {
+        String reference = sheet.getAttributeValue(null, "r");
+        int column = reference == null ? defaultColumn : columnFromReference(reference);
+        String type = sheet.getAttributeValue(null, "t");
+
+        String value = null;
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.START_ELEMENT && (sheet.getLocalName().equals("v") || sheet.getLocalName().equals("t"))) {
+                value = sheet.getElementText();
+            } else if (event == XMLStreamConstants.END_ELEMENT && sheet.getLocalName().equals("c")) {
+                break;
+            }
+        }
+
+        if (value != null) {
+            setCell(column, type, value);
+        }
+        return column + 1;
+    }
+
+    private void setCell(int column, String type, String value) throws IOException {
+        if (CELL_TYPE_SHARED_STRING.equals(type)) {
+            row.setText(column, getSharedString(value));
+        } else if (CELL_TYPE_INLINE_STRING.equals(type) || CELL_TYPE_FORMULA_STRING.equals(type) || CELL_TYPE_ERROR.equals(type)) {
+            row.setText(column, pool.intern(value));
+        } else {
+            try {
+                row.setNumber(column, Double.parseDouble(value));
+            } catch (NumberFormatException e) {
+                row.setText(column, pool.intern(value));
+            }
+        }
+    }
+
+    private String getSharedString(String indexText) throws IOException {
+        int index;
+        try {
+            index = Integer.parseInt(indexText.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid shared string index '" + indexText + "' in workbook " + zipFile.getName());
+        }
+        if (index < 0 || index >= sharedStrings.length) {
+            throw new IOException("Shared string index " + index + " is out of range (" + sharedStrings.length
+                    + " strings) in workbook " + zipFile.getName());
+        }
+        return sharedStrings[index];
+    }
+
+    // Convert a cell reference such as "AB12" into a 0-based column number.
+    private static int columnFromReference(String reference) {
+        int column = 0;
+        for (int i = 0; i < reference.length() && Character.isLetter(reference.charAt(i)); i++) {
+            column = column * LETTERS_IN_ALPHABET + (Character.toUpperCase(reference.charAt(i)) - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private String[] readSharedStrings() throws IOException, XMLStreamException {
+        List<String> strings = new ArrayList<String>();
+        if (zipFile.getEntry(SHARED_STRINGS_PATH) == null) {
+            return new String[0];
+        }
+
+        XMLStreamReader xml = openXml(SHARED_STRINGS_PATH);
+        try {
+            StringBuilder text = new StringBuilder();
+            boolean inPhonetic = false;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if (name.equals("si")) {
+                        text.setLength(0);
+                    } else if (name.equals("rPh")) {
+                        inPhonetic = true;
+                    } else if (name.equals("t") && !inPhonetic) {
+                        text.append(xml.getElementText());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if (name.equals("si")) {
+                        strings.add(pool.intern(text.toString()));
+                    } else if (name.equals("rPh")) {
+                        inPhonetic = false;
+                    }
+                }
+            }
+        } finally {
+            xml.close();
+        }
+        return strings.toArray(new String[strings.size()]);
+    }
+
+    private String findFirstSheetPath() throws IOException, XMLStreamException {
+        String relationshipId = findFirstSheetRelationshipId();
+        if (relationshipId == null || zipFile.getEntry(WORKBOOK_RELATIONSHIPS_PATH) == null) {
+            return DEFAULT_SHEET_PATH;
+        }
+
+        XMLStreamReader xml = openXml(WORKBOOK_RELATIONSHIPS_PATH);
+        try {
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && xml.getLocalName().equals("Relationship")
+                        && relationshipId.equals(xml.getAttributeValue(null, "Id"))) {
+                    String target = xml.getAttributeValue(null, "Target");
+                    return target.startsWith("/") ? target.substring(1) : WORKBOOK_FOLDER + target;
+                }
+            }
+        } finally {
+            xml.close();
+        }
+        return DEFAULT_SHEET_PATH;
+    }
+
+    private String findFirstSheetRelationshipId() throws IOException, XMLStreamException {
+        XMLStreamReader xml = openXml(WORKBOOK_PATH);
+        try {
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && xml.getLocalName().equals("sheet")) {
+                    return xml.getAttributeValue(RELATIONSHIPS_NAMESPACE, "id");
+                }
+            }
+        } finally {
+            xml.close();
+        }
+        return null;
+    }
+
+    private XMLStreamReader openXml(String path) throws IOException, XMLStreamException {
+        ZipEntry entry = zipFile.getEntry(path);
+        if (entry == null) {
+            throw new IOException("Workbook is missing " + path);
+        }
+        InputStream input = zipFile.getInputStream(entry);
+        return xmlFactory.createXMLStreamReader(input);
+    }
+
+    private static IOException asIOException(Exception e, File file) {
+        if (e instanceof IOException) {
+            return (IOException) e;
+        }
+        return new IOException("Error reading workbook " + file + ": " + e.getMessage(), e);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (sheet != null) {
+                sheet.close();
+            }
+        } catch (XMLStreamException e) {
+            // Closing the zip file below releases everything the parser used.
+        }
+        zipFile.close();
+    }
+}
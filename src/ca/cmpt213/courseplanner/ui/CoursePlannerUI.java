@@ -3,65 +3,53 @@ package ca.cmpt213.courseplanner.ui;
 import java.awt.BorderLayout;
 import java.awt.Component;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.util.Arrays;
 
 import javax.swing.BoxLayout;
 import javax.swing.JFrame;
-import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 
 import ca.cmpt213.courseplanner.model.Model;
 
 /**
- * Create and display the main UI and load data into the model.
+ * Create and display the main UI and load data into the model in the background.
  */
 public class CoursePlannerUI {
     // private final static String COURSE_DATA_FILE_PATH = "data/course_data.csv";
     private final static String COURSE_DATA_FILE_PATH = "data/course_data_2014.csv";
+    private final static String COURSE_SNAPSHOT_FILE_PATH = "data/course_data_2014.snapshot";
+    private final static String DUMP_MODEL_OPTION = "--dump";
 
     Model model;
 
     /*
-     * Static interface to start application
+     * Static interface to start application. Pass --dump to print the model to the console once it is loaded.
      */
     public static void main(String[] args) {
-        Model model = new Model();
+        boolean dumpModel = Arrays.asList(args).contains(DUMP_MODEL_OPTION);
 
-        if (tryLoadData(model)) {
-            model.dumpModelToConsole();
-
-            // Launch the UI
-            new CoursePlannerUI(model);
-        }
-    }
-
-    private static boolean tryLoadData(Model model) {
-        File file = new File(COURSE_DATA_FILE_PATH);
-        try {
-            model.loadDataFromFile(file);
-            return true;
-        } catch (FileNotFoundException e) {
-            String message = "Data file (" + file.getAbsolutePath() + ") not found.";
-            JOptionPane.showMessageDialog(null, message);
-        } catch (Exception e) {
-            String message = "Error opening data file: " + e.getMessage();
-            JOptionPane.showMessageDialog(null, message);
-        }
-        return false;
+        // Launch the UI, then load the data into it in the background.
+        new CoursePlannerUI(new Model(), dumpModel);
     }
 
-    public CoursePlannerUI(Model model) {
+    public CoursePlannerUI(Model model, boolean dumpModel) {
         this.model = model;
         JFrame frame = new JFrame("FAS Course Planner");
         frame.setLayout(new BorderLayout());
 
+        LoadStatusPanel statusPanel = new LoadStatusPanel();
         frame.add(makeLeftPanel(), BorderLayout.WEST);
         frame.add(makeCentrePanel(model), BorderLayout.CENTER);
         frame.add(makeRightPanel(), BorderLayout.EAST);
+        frame.add(statusPanel, BorderLayout.SOUTH);
 
         frame.pack();
         frame.setVisible(true);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+        File dataFile = new File(COURSE_DATA_FILE_PATH);
+        File snapshotFile = new File(COURSE_SNAPSHOT_FILE_PATH);
+        new DataLoadWorker(model, dataFile, snapshotFile, statusPanel, dumpModel).execute();
     }
 
     private Component makeLeftPanel() {
@@ -0,0 +1,93 @@
+package ca.cmpt213.courseplanner.ui;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+
+import ca.cmpt213.courseplanner.model.DepartmentManager;
+import ca.cmpt213.courseplanner.model.LoadProgress;
+import ca.cmpt213.courseplanner.model.LoadProgressListener;
+import ca.cmpt213.courseplanner.model.Model;
+
+/**
+ * Load the data file on a background thread while the UI is showing, reporting progress to a LoadStatusPanel. When
+ * loading finishes the data is put into the model (which updates the panels), and the data file is watched for
+ * changes.
+ */
+public class DataLoadWorker extends SwingWorker<DepartmentManager, LoadProgress> {
+    private Model model;
+    private File dataFile;
+    private File snapshotFile;
+    private LoadStatusPanel statusPanel;
+    private boolean dumpModel;
+    private long startTime;
+
+    public DataLoadWorker(Model model, File dataFile, File snapshotFile, LoadStatusPanel statusPanel, boolean dumpModel) {
+        this.model = model;
+        this.dataFile = dataFile;
+        this.snapshotFile = snapshotFile;
+        this.statusPanel = statusPanel;
+        this.dumpModel = dumpModel;
+    }
+
+    @Override
+    protected DepartmentManager doInBackground() throws IOException {
+        startTime = System.nanoTime();
+        return model.loadDepartments(dataFile, snapshotFile, new LoadProgressListener() {
+            @Override
+            public void progressMade(LoadProgress progress) {
+                publish(progress);
+            }
+        });
+    }
+
+    @Override
+    protected void process(List<LoadProgress> reports) {
+        statusPanel.showProgress(reports.get(reports.size() - 1));
+    }
+
+    @Override
+    protected void done() {
+        try {
+            model.setDepartments(get());
+            statusPanel.showLoaded(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            showLoadError(e.getCause());
+            return;
+        }
+
+        if (dumpModel) {
+            model.dumpModelToConsole();
+        }
+        watchDataFile();
+    }
+
+    private void showLoadError(Throwable error) {
+        String message;
+        if (error instanceof FileNotFoundException) {
+            message = "Data file (" + dataFile.getAbsolutePath() + ") not found.";
+        } else {
+            message = "Error opening data file: " + error.getMessage();
+        }
+        statusPanel.showFailed(message);
+        JOptionPane.showMessageDialog(null, message);
+    }
+
+    private void watchDataFile() {
+        try {
+            model.startWatchingDataFile(dataFile, snapshotFile);
+        } catch (IOException e) {
+            System.err.println("Unable to watch data file for changes: " + e.getMessage());
+        }
+    }
+
+}
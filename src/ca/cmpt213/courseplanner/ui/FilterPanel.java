@@ -8,12 +8,15 @@ import java.util.Vector;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
+import javax.swing.DefaultComboBoxModel;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 import ca.cmpt213.courseplanner.model.CourseFilter;
 import ca.cmpt213.courseplanner.model.Department;
@@ -33,6 +36,7 @@ public class FilterPanel extends TitledPanel {
     public FilterPanel(Model model) {
         super("Course List Filter", model);
         setMainContents(makeMainPanel());
+        registerForCallbacks();
     }
 
     private JComponent makeMainPanel() {
@@ -47,11 +51,7 @@ public class FilterPanel extends TitledPanel {
     }
 
     private Component makeDepartmentSelector() {
-        Vector<String> departments = new Vector<String>();
-        for (Department department : getModel().departments()) {
-            departments.add(department.toString());
-        }
-        departmentComboBox = new JComboBox<String>(departments);
+        departmentComboBox = new JComboBox<String>(getDepartmentNames());
 
         JPanel panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.LINE_AXIS));
@@ -94,8 +94,38 @@ public class FilterPanel extends TitledPanel {
         return panel;
     }
 
+    private Vector<String> getDepartmentNames() {
+        Vector<String> departments = new Vector<String>();
+        for (Department department : getModel().departments()) {
+            departments.add(department.toString());
+        }
+        return departments;
+    }
+
+    private void registerForCallbacks() {
+        getModel().addDataChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                updateDepartmentList();
+            }
+        });
+    }
+
+    // Data may be loaded (or reloaded) after the panel is made; keep the selected department if it is still there.
+    private void updateDepartmentList() {
+        Object selectedDepartment = departmentComboBox.getSelectedItem();
+        departmentComboBox.setModel(new DefaultComboBoxModel<String>(getDepartmentNames()));
+        if (selectedDepartment != null) {
+            departmentComboBox.setSelectedItem(selectedDepartment);
+        }
+    }
+
     private void updateFilter() {
         String department = (String) departmentComboBox.getSelectedItem();
+        if (department == null) {
+            // No data loaded yet.
+            return;
+        }
         boolean includeUGrad = underGradCheckBox.isSelected();
         boolean includeGrad = gradCheckBox.isSelected();
 
@@ -0,0 +1,55 @@
+package ca.cmpt213.courseplanner.ui;
+
+import java.awt.BorderLayout;
+
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+
+import ca.cmpt213.courseplanner.model.LoadProgress;
+
+/**
+ * Status bar showing the progress of loading the data file: percent done, bytes read and rows per second.
+ */
+@SuppressWarnings("serial")
+public class LoadStatusPanel extends JPanel {
+    private static final int EMPTY_BORDER_WIDTH = 3;
+    private static final int BYTES_PER_KB = 1024;
+
+    private JProgressBar progressBar;
+    private JLabel statusLabel;
+
+    public LoadStatusPanel() {
+        setLayout(new BorderLayout(EMPTY_BORDER_WIDTH, 0));
+        setBorder(BorderFactory.createEmptyBorder(EMPTY_BORDER_WIDTH, EMPTY_BORDER_WIDTH, EMPTY_BORDER_WIDTH, EMPTY_BORDER_WIDTH));
+
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        statusLabel = new JLabel("Loading data...");
+
+        add(statusLabel, BorderLayout.CENTER);
+        add(progressBar, BorderLayout.EAST);
+    }
+
+    public void showProgress(LoadProgress progress) {
+        progressBar.setValue(progress.getPercentDone());
+        statusLabel.setText(String.format("Loading %s: %,d of %,d KB, %,d rows (%,d rows/sec)",
+                progress.getFile().getName(),
+                progress.getBytesRead() / BYTES_PER_KB,
+                progress.getTotalBytes() / BYTES_PER_KB,
+                progress.getRowsLoaded(),
+                progress.getRowsPerSecond()));
+    }
+
+    public void showLoaded(long elapsedMillis) {
+        progressBar.setValue(progressBar.getMaximum());
+        statusLabel.setText(String.format("Data loaded in %,d ms.", elapsedMillis));
+    }
+
+    public void showFailed(String message) {
+        progressBar.setValue(0);
+        statusLabel.setText(message);
+    }
+
+}
@@ -0,0 +1,663 @@
+package ca.cmpt213.courseplanner.ui;
+
+import java.awt.Color;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.FocusEvent;
+import java.awt.event.FocusListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.accessibility.Accessible;
+import javax.accessibility.AccessibleAction;
+import javax.accessibility.AccessibleContext;
+import javax.accessibility.AccessibleRole;
+import javax.accessibility.AccessibleState;
+import javax.accessibility.AccessibleStateSet;
+import javax.swing.AbstractAction;
+import javax.swing.ActionMap;
+import javax.swing.CellRendererPane;
+import javax.swing.InputMap;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JViewport;
+import javax.swing.KeyStroke;
+import javax.swing.Scrollable;
+import javax.swing.UIManager;
+
+import ca.cmpt213.courseplanner.model.Course;
+import ca.cmpt213.courseplanner.model.CourseOffering;
+import ca.cmpt213.courseplanner.model.Model;
+
+/**
+ * Custom-painted grid of course offerings: a row for each year and a column for each semester, with a button for each
+ * offering. Each cell's offerings come straight from the course's table of offerings by semester; painting draws only
+ * the cells in view, using one shared button as a renderer. Clicking an offering selects it in the model.
+ *
+ * The grid also takes the keyboard focus: the arrow keys move between offerings and Enter or Space selects the focused
+ * one. Each offering is exposed to assistive technologies as an accessible push button.
+ */
+@SuppressWarnings("serial")
+public class OfferingGrid extends JComponent implements Scrollable, Accessible {
+    private static final String[] COLUMN_NAMES = { "Spring", "Summer", "Fall" };
+    private static final int NUM_COLUMNS = COLUMN_NAMES.length;
+    private static final int CELL_PADDING = 10;
+
+    private static final int PREF_WIDTH = 600;
+    private static final int PREF_HEIGHT = 500;
+
+    private static final int DEFAULT_FIRST_YEAR = 2000;
+    private static final int DEFAULT_LAST_YEAR = 2010;
+
+    private Model model;
+    private String message;
+
+    // Cells are in row order: [(year - firstYear) * NUM_COLUMNS + column].
+    private Course course;
+    private int firstYear = DEFAULT_FIRST_YEAR;
+    private int numYears = 0;
+    private String[][] cellLabels = new String[0][];
+    // Number of offerings before each cell, with an extra entry for the total.
+    private int[] cellStarts = { 0 };
+
+    // Row layout; rowTops has an extra entry for the bottom of the last row.
+    private int[] rowHeights = new int[0];
+    private int[] rowTops = { 0 };
+    private int layoutHeight = -1;
+
+    private JButton buttonRenderer = new JButton(" ");
+    private CellRendererPane rendererPane = new CellRendererPane();
+    private CourseOffering pressedOffering;
+
+    // The offering with the keyboard focus, as a cell and an index within it; focusedCell is -1 if there is none.
+    private int focusedCell = -1;
+    private int focusedItem = 0;
+
+    public OfferingGrid(Model model) {
+        this.model = model;
+        setOpaque(true);
+        setBackground(Color.WHITE);
+        setForeground(UIManager.getColor("Label.foreground"));
+        setFont(UIManager.getFont("Label.font"));
+        add(rendererPane);
+        setFocusable(true);
+        registerMouseListener();
+        registerKeyBindings();
+        registerFocusListener();
+    }
+
+    /**
+     * Show a message in place of the grid.
+     */
+    public void showMessage(String message) {
+        this.message = message;
+        setCourse(null, DEFAULT_FIRST_YEAR, 0);
+    }
+
+    /**
+     * Show the offerings of a course, or an empty grid if it is null.
+     */
+    public void showCourse(Course course) {
+        message = null;
+        if (course == null || !course.hasOfferings()) {
+            setCourse(null, DEFAULT_FIRST_YEAR, DEFAULT_LAST_YEAR - DEFAULT_FIRST_YEAR + 1);
+        } else {
+            setCourse(course, course.getFirstYear(), course.getLastYear() - course.getFirstYear() + 1);
+        }
+    }
+
+    private void setCourse(Course course, int firstYear, int numYears) {
+        this.course = course;
+        this.firstYear = firstYear;
+        this.numYears = numYears;
+        pressedOffering = null;
+
+        cellLabels = new String[numYears * NUM_COLUMNS][];
+        cellStarts = new int[cellLabels.length + 1];
+        rowHeights = new int[numYears];
+        for (int i = 0; i < cellLabels.length; i++) {
+            List<CourseOffering> cell = getCell(i);
+            cellLabels[i] = new String[cell.size()];
+            cellStarts[i + 1] = cellStarts[i] + cell.size();
+            for (int j = 0; j < cell.size(); j++) {
+                CourseOffering offering = cell.get(j);
+                cellLabels[i][j] = offering.getCourse().toString() + " - " + offering.getLocation();
+            }
+            int row = i / NUM_COLUMNS;
+            int cellHeight = Math.max(1, cell.size()) * getButtonHeight() + CELL_PADDING;
+            rowHeights[row] = Math.max(rowHeights[row], cellHeight);
+        }
+        layoutHeight = -1;
+        // The first offering takes the focus when the grid next gets it (or an arrow key is pressed).
+        focusedCell = -1;
+        focusedItem = 0;
+        revalidate();
+        repaint();
+    }
+
+    // Columns are in the order of Semester term indexes.
+    private List<CourseOffering> getCell(int cellIndex) {
+        if (course == null) {
+            return Collections.emptyList();
+        }
+        return course.getOfferingsIn(firstYear + cellIndex / NUM_COLUMNS, cellIndex % NUM_COLUMNS);
+    }
+
+    /*
+     * Layout
+     */
+    private int getButtonHeight() {
+        return buttonRenderer.getPreferredSize().height;
+    }
+
+    private int getHeaderHeight() {
+        return getFontMetrics(getFont()).getHeight() + CELL_PADDING;
+    }
+
+    private int getRowHeaderWidth() {
+        return getFontMetrics(getFont()).stringWidth("0000") + CELL_PADDING * 2;
+    }
+
+    private int getColumnWidth() {
+        return Math.max(0, (getWidth() - getRowHeaderWidth()) / NUM_COLUMNS);
+    }
+
+    private int getContentHeight() {
+        int height = getHeaderHeight();
+        for (int rowHeight : rowHeights) {
+            height += rowHeight;
+        }
+        return height;
+    }
+
+    // Rows share any height beyond what they need, as when the grid is taller than its contents.
+    private void ensureLayout() {
+        if (layoutHeight == getHeight()) {
+            return;
+        }
+        layoutHeight = getHeight();
+        int extra = numYears == 0 ? 0 : Math.max(0, getHeight() - getContentHeight()) / numYears;
+        rowTops = new int[numYears + 1];
+        rowTops[0] = getHeaderHeight();
+        for (int row = 0; row < numYears; row++) {
+            rowTops[row + 1] = rowTops[row] + rowHeights[row] + extra;
+        }
+    }
+
+    // The row containing y, or -1 if none.
+    private int rowAt(int y) {
+        int low = 0;
+        int high = numYears - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (y < rowTops[mid]) {
+                high = mid - 1;
+            } else if (y >= rowTops[mid + 1]) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private CourseOffering offeringAt(Point point) {
+        ensureLayout();
+        int row = rowAt(point.y);
+        int column = (point.x - getRowHeaderWidth()) / Math.max(1, getColumnWidth());
+        if (row < 0 || point.x < getRowHeaderWidth() || column >= NUM_COLUMNS) {
+            return null;
+        }
+        List<CourseOffering> cell = getCell(row * NUM_COLUMNS + column);
+        int index = (point.y - rowTops[row] - CELL_PADDING / 2) / getButtonHeight();
+        return point.y >= rowTops[row] + CELL_PADDING / 2 && index < cell.size() ? cell.get(index) : null;
+    }
+
+    // Bounds of an offering's button.
+    private Rectangle getOfferingBounds(int cellIndex, int item) {
+        ensureLayout();
+        int row = cellIndex / NUM_COLUMNS;
+        int column = cellIndex % NUM_COLUMNS;
+        int x = getRowHeaderWidth() + column * getColumnWidth() + 1;
+        int y = rowTops[row] + CELL_PADDING / 2 + item * getButtonHeight();
+        return new Rectangle(x, y, Math.max(0, getColumnWidth() - 2), getButtonHeight());
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        return new Dimension(PREF_WIDTH, numYears == 0 ? PREF_HEIGHT : getContentHeight());
+    }
+
+    /*
+     * Painting
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(getSize());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        g.setColor(getForeground());
+
+        if (message != null) {
+            paintMessage(g);
+            return;
+        }
+
+        ensureLayout();
+        paintColumnHeader(g);
+        int firstRow = clip.y < rowTops[0] ? 0 : rowAt(clip.y);
+        for (int row = firstRow; row >= 0 && row < numYears && rowTops[row] < clip.y + clip.height; row++) {
+            paintRow(g, row, clip);
+        }
+    }
+
+    private void paintMessage(Graphics g) {
+        FontMetrics metrics = g.getFontMetrics();
+        int x = (getWidth() - metrics.stringWidth(message)) / 2;
+        int y = (getHeight() - metrics.getHeight()) / 2 + metrics.getAscent();
+        g.drawString(message, x, y);
+    }
+
+    private void paintColumnHeader(Graphics g) {
+        FontMetrics metrics = g.getFontMetrics();
+        int columnWidth = getColumnWidth();
+        int y = CELL_PADDING / 2 + metrics.getAscent();
+        for (int column = 0; column < NUM_COLUMNS; column++) {
+            int x = getRowHeaderWidth() + column * columnWidth;
+            g.drawString(COLUMN_NAMES[column], x + (columnWidth - metrics.stringWidth(COLUMN_NAMES[column])) / 2, y);
+        }
+    }
+
+    private void paintRow(Graphics g, int row, Rectangle clip) {
+        FontMetrics metrics = g.getFontMetrics();
+        String year = Integer.toString(firstYear + row);
+        int top = rowTops[row];
+        int height = rowTops[row + 1] - top;
+        g.drawString(year, getRowHeaderWidth() - CELL_PADDING - metrics.stringWidth(year),
+                top + CELL_PADDING / 2 + metrics.getAscent());
+
+        int columnWidth = getColumnWidth();
+        for (int column = 0; column < NUM_COLUMNS; column++) {
+            int x = getRowHeaderWidth() + column * columnWidth;
+            g.setColor(Color.BLACK);
+            g.drawRect(x, top, columnWidth - 1, height - 1);
+            paintCell(g, row * NUM_COLUMNS + column, x + 1, top + CELL_PADDING / 2, columnWidth - 2, clip);
+        }
+        g.setColor(getForeground());
+    }
+
+    // Paint only the buttons of the cell within the clip.
+    private void paintCell(Graphics g, int cellIndex, int x, int y, int width, Rectangle clip) {
+        List<CourseOffering> cell = getCell(cellIndex);
+        int buttonHeight = getButtonHeight();
+        int first = Math.max(0, (clip.y - y) / buttonHeight);
+        int end = Math.min(cell.size(), (clip.y + clip.height - y) / buttonHeight + 1);
+        for (int i = first; i < end; i++) {
+            boolean isPressed = cell.get(i) == pressedOffering;
+            buttonRenderer.setText(cellLabels[cellIndex][i]);
+            buttonRenderer.getModel().setArmed(isPressed);
+            buttonRenderer.getModel().setPressed(isPressed);
+            rendererPane.paintComponent(g, buttonRenderer, this, x, y + i * buttonHeight, width, buttonHeight, true);
+            if (cellIndex == focusedCell && i == focusedItem && hasFocus()) {
+                paintFocus(g, x, y + i * buttonHeight, width, buttonHeight);
+            }
+        }
+    }
+
+    private void paintFocus(Graphics g, int x, int y, int width, int height) {
+        Color focusColor = UIManager.getColor("Button.focus");
+        g.setColor(focusColor != null ? focusColor : getForeground());
+        g.drawRect(x + 2, y + 2, width - 5, height - 5);
+    }
+
+    /*
+     * Mouse: select an offering when its button is clicked.
+     */
+    private void registerMouseListener() {
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                pressedOffering = offeringAt(e.getPoint());
+                if (pressedOffering != null) {
+                    focusOffering(pressedOffering);
+                }
+                repaint();
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                CourseOffering offering = pressedOffering;
+                pressedOffering = null;
+                repaint();
+                if (offering != null && offering == offeringAt(e.getPoint())) {
+                    model.selectOffering(offering);
+                }
+            }
+        });
+    }
+
+    /*
+     * Keyboard: the arrow keys move the focus between offerings, and Enter or Space selects the focused one.
+     */
+    private void registerKeyBindings() {
+        InputMap inputMap = getInputMap(WHEN_FOCUSED);
+        ActionMap actionMap = getActionMap();
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_UP, 0), "previousOffering");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0), "nextOffering");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_LEFT, 0), "previousSemester");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_RIGHT, 0), "nextSemester");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "selectOffering");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_SPACE, 0), "selectOffering");
+
+        actionMap.put("previousOffering", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                moveFocusBy(-1);
+            }
+        });
+        actionMap.put("nextOffering", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                moveFocusBy(1);
+            }
+        });
+        actionMap.put("previousSemester", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                moveFocusToCell(-1);
+            }
+        });
+        actionMap.put("nextSemester", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                moveFocusToCell(1);
+            }
+        });
+        actionMap.put("selectOffering", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (focusedCell >= 0) {
+                    model.selectOffering(getCell(focusedCell).get(focusedItem));
+                }
+            }
+        });
+    }
+
+    private void registerFocusListener() {
+        addFocusListener(new FocusListener() {
+            @Override
+            public void focusGained(FocusEvent e) {
+                if (focusedCell < 0 && getNumOfferings() > 0) {
+                    focusNumber(0);
+                }
+                repaintFocusedOffering();
+            }
+
+            @Override
+            public void focusLost(FocusEvent e) {
+                repaintFocusedOffering();
+            }
+        });
+    }
+
+    private int getNumOfferings() {
+        return cellStarts[cellStarts.length - 1];
+    }
+
+    // Offerings are numbered in the order of the cells, then their order within each cell.
+    private int getFocusedNumber() {
+        return focusedCell < 0 ? -1 : cellStarts[focusedCell] + focusedItem;
+    }
+
+    private void focusNumber(int number) {
+        int cellIndex = 0;
+        while (cellStarts[cellIndex + 1] <= number) {
+            cellIndex++;
+        }
+        setFocusedOffering(cellIndex, number - cellStarts[cellIndex]);
+    }
+
+    private void focusOffering(CourseOffering offering) {
+        for (int cellIndex = 0; cellIndex < cellLabels.length; cellIndex++) {
+            int item = getCell(cellIndex).indexOf(offering);
+            if (item >= 0) {
+                setFocusedOffering(cellIndex, item);
+                return;
+            }
+        }
+    }
+
+    // Move to the next or previous offering, continuing into the following or preceding cells.
+    private void moveFocusBy(int step) {
+        int numOfferings = getNumOfferings();
+        if (numOfferings == 0) {
+            return;
+        }
+        int number = getFocusedNumber() + step;
+        focusNumber(Math.max(0, Math.min(numOfferings - 1, number)));
+    }
+
+    // Move to the first offering of the nearest cell in the given direction that has any.
+    private void moveFocusToCell(int step) {
+        int start = focusedCell < 0 ? -1 : focusedCell;
+        for (int cellIndex = start + step; cellIndex >= 0 && cellIndex < cellLabels.length; cellIndex += step) {
+            if (cellLabels[cellIndex].length > 0) {
+                setFocusedOffering(cellIndex, 0);
+                return;
+            }
+        }
+    }
+
+    private void setFocusedOffering(int cellIndex, int item) {
+        if (cellIndex == focusedCell && item == focusedItem) {
+            return;
+        }
+        Accessible oldFocus = getFocusedAccessible();
+        repaintFocusedOffering();
+        focusedCell = cellIndex;
+        focusedItem = item;
+        repaintFocusedOffering();
+        if (focusedCell >= 0) {
+            scrollRectToVisible(getOfferingBounds(focusedCell, focusedItem));
+        }
+        if (accessibleContext != null) {
+            accessibleContext.firePropertyChange(AccessibleContext.ACCESSIBLE_ACTIVE_DESCENDANT_PROPERTY, oldFocus,
+                    getFocusedAccessible());
+        }
+    }
+
+    private void repaintFocusedOffering() {
+        if (focusedCell >= 0 && numYears > 0) {
+            repaint(getOfferingBounds(focusedCell, focusedItem));
+        }
+    }
+
+    private Accessible getFocusedAccessible() {
+        return focusedCell < 0 ? null : new AccessibleOffering(getFocusedNumber());
+    }
+
+    /*
+     * Accessibility: the grid is a panel whose children are the offerings' buttons.
+     */
+    @Override
+    public AccessibleContext getAccessibleContext() {
+        if (accessibleContext == null) {
+            accessibleContext = new AccessibleOfferingGrid();
+        }
+        return accessibleContext;
+    }
+
+    protected class AccessibleOfferingGrid extends AccessibleJComponent {
+        @Override
+        public AccessibleRole getAccessibleRole() {
+            return AccessibleRole.PANEL;
+        }
+
+        @Override
+        public String getAccessibleName() {
+            String name = super.getAccessibleName();
+            if (name != null) {
+                return name;
+            }
+            return message != null ? message : "Course offerings by semester";
+        }
+
+        @Override
+        public int getAccessibleChildrenCount() {
+            return message != null ? 0 : getNumOfferings();
+        }
+
+        @Override
+        public Accessible getAccessibleChild(int i) {
+            return i < 0 || i >= getAccessibleChildrenCount() ? null : new AccessibleOffering(i);
+        }
+    }
+
+    // An offering's button, numbered as for getFocusedNumber(). Clicking it selects the offering.
+    private class AccessibleOffering extends AccessibleContext implements Accessible, AccessibleAction {
+        private final int number;
+        private final int cellIndex;
+        private final int item;
+
+        AccessibleOffering(int number) {
+            this.number = number;
+            int cell = 0;
+            while (cellStarts[cell + 1] <= number) {
+                cell++;
+            }
+            this.cellIndex = cell;
+            this.item = number - cellStarts[cell];
+            setAccessibleParent(OfferingGrid.this);
+        }
+
+        @Override
+        public AccessibleContext getAccessibleContext() {
+            return this;
+        }
+
+        @Override
+        public String getAccessibleName() {
+            String semester = COLUMN_NAMES[cellIndex % NUM_COLUMNS] + " " + (firstYear + cellIndex / NUM_COLUMNS);
+            return cellLabels[cellIndex][item] + ", " + semester;
+        }
+
+        @Override
+        public AccessibleRole getAccessibleRole() {
+            return AccessibleRole.PUSH_BUTTON;
+        }
+
+        @Override
+        public AccessibleStateSet getAccessibleStateSet() {
+            AccessibleStateSet states = new AccessibleStateSet();
+            states.add(AccessibleState.ENABLED);
+            states.add(AccessibleState.FOCUSABLE);
+            states.add(AccessibleState.VISIBLE);
+            if (cellIndex == focusedCell && item == focusedItem) {
+                states.add(AccessibleState.ACTIVE);
+                if (hasFocus()) {
+                    states.add(AccessibleState.FOCUSED);
+                }
+            }
+            return states;
+        }
+
+        @Override
+        public int getAccessibleIndexInParent() {
+            return number;
+        }
+
+        @Override
+        public int getAccessibleChildrenCount() {
+            return 0;
+        }
+
+        @Override
+        public Accessible getAccessibleChild(int i) {
+            return null;
+        }
+
+        @Override
+        public Locale getLocale() {
+            return OfferingGrid.this.getLocale();
+        }
+
+        @Override
+        public AccessibleAction getAccessibleAction() {
+            return this;
+        }
+
+        @Override
+        public int getAccessibleActionCount() {
+            return 1;
+        }
+
+        @Override
+        public String getAccessibleActionDescription(int i) {
+            return i == 0 ? UIManager.getString("AbstractButton.clickText") : null;
+        }
+
+        @Override
+        public boolean doAccessibleAction(int i) {
+            if (i != 0 || cellIndex >= cellLabels.length || item >= getCell(cellIndex).size()) {
+                return false;
+            }
+            model.selectOffering(getCell(cellIndex).get(item));
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof AccessibleOffering && ((AccessibleOffering) other).number == number;
+        }
+
+        @Override
+        public int hashCode() {
+            return number;
+        }
+    }
+
+    /*
+     * Scrollable
+     */
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(PREF_WIDTH, PREF_HEIGHT);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return getButtonHeight();
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return visibleRect.height;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        Container parent = getParent();
+        return parent instanceof JViewport && parent.getHeight() > getPreferredSize().height;
+    }
+}
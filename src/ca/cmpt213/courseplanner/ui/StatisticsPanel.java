@@ -1,8 +1,6 @@
 package ca.cmpt213.courseplanner.ui;
 
 import java.awt.Component;
-import java.util.ArrayList;
-import java.util.List;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -15,7 +13,7 @@ import javax.swing.event.ChangeListener;
 import Histogram.Histogram;
 import Histogram.HistogramIcon;
 import ca.cmpt213.courseplanner.model.Course;
-import ca.cmpt213.courseplanner.model.CourseOffering;
+import ca.cmpt213.courseplanner.model.CourseStatistics;
 import ca.cmpt213.courseplanner.model.Model;
 import ca.cmpt213.courseplanner.model.Semester;
 
@@ -28,21 +26,19 @@ public class StatisticsPanel extends TitledPanel {
     private static final int ICON_WIDTH = 250;
 
     private static final int NUM_CAMPUSES = 4;
-    private static final int NUM_SEMESTERS = 3;
+    private static final int NUM_SEMESTERS = Semester.NUM_TERMS;
     private static final int HISTOGRAM_SPACING = 20;
+    private static final double PERCENT = 100;
 
     private static final int LOCATION_INDEX_BBY = 0;
     private static final int LOCATION_INDEX_SRY = 1;
     private static final int LOCATION_INDEX_VAN = 2;
     private static final int LOCATION_INDEX_OTHER = 3;
 
-    private static final int SEMESTER_INDEX_SPRING = 0;
-    private static final int SEMESTER_INDEX_SUMMER = 1;
-    private static final int SEMESTER_INDEX_FALL = 2;
-
     private Histogram locationHistogram;
     private Histogram semesterHistogram;
     private JLabel courseNameLabel;
+    private JLabel enrollmentLabel;
 
     public StatisticsPanel(Model model) {
         super("Statistics", model);
@@ -54,6 +50,7 @@ public class StatisticsPanel extends TitledPanel {
         panel.setLayout(new BoxLayout(panel, BoxLayout.PAGE_AXIS));
 
         panel.add(makeCourseNameLabel());
+        panel.add(makeEnrollmentLabel());
         panel.add(makeSemesterHistogramPane());
         panel.add(makeLocationHistogramPanel());
 
@@ -68,9 +65,13 @@ public class StatisticsPanel extends TitledPanel {
         return courseNameLabel;
     }
 
+    private Component makeEnrollmentLabel() {
+        enrollmentLabel = new JLabel("");
+        return enrollmentLabel;
+    }
+
     private Component makeSemesterHistogramPane() {
-        int[] data = new int[0];
-        semesterHistogram = new Histogram(data, NUM_SEMESTERS);
+        semesterHistogram = new Histogram(NUM_SEMESTERS, 1);
         HistogramIcon icon = new HistogramIcon(semesterHistogram, ICON_WIDTH, ICON_HEIGHT);
 
         JPanel panel = new JPanel();
@@ -84,8 +85,7 @@ public class StatisticsPanel extends TitledPanel {
     }
 
     private Component makeLocationHistogramPanel() {
-        int[] data = new int[0];
-        locationHistogram = new Histogram(data, NUM_CAMPUSES);
+        locationHistogram = new Histogram(NUM_CAMPUSES, 1);
         HistogramIcon icon = new HistogramIcon(locationHistogram, ICON_WIDTH, ICON_HEIGHT);
 
         JPanel panel = new JPanel();
@@ -112,9 +112,12 @@ public class StatisticsPanel extends TitledPanel {
         if (selectedCourse == null) {
             clearData();
         } else {
+            CourseStatistics statistics = selectedCourse.getStatistics();
             courseNameLabel.setText("Course: " + selectedCourse.toString());
-            semesterHistogram.setData(countOfferingsPerSemester(selectedCourse));
-            locationHistogram.setData(countOfferingsPerLocation(selectedCourse));
+            enrollmentLabel.setText(String.format("Average enrollment: %.1f (%.0f%% full)",
+                    statistics.getAverageEnrollment(), statistics.getFillRate() * PERCENT));
+            semesterHistogram.setCounts(countOfferingsPerSemester(statistics));
+            locationHistogram.setCounts(countOfferingsPerLocation(statistics));
         }
 
         // Have Java redraw the area on the UI.
@@ -122,54 +125,36 @@ public class StatisticsPanel extends TitledPanel {
     }
 
     private void clearData() {
-        int[] data = new int[0];
         courseNameLabel.setText("Course: " + "");
-        semesterHistogram.setData(data);
-        locationHistogram.setData(data);
+        enrollmentLabel.setText("");
+        semesterHistogram.setCounts(new int[NUM_SEMESTERS]);
+        locationHistogram.setCounts(new int[NUM_CAMPUSES]);
     }
 
-    private int[] countOfferingsPerLocation(Course course) {
-        List<Integer> data = new ArrayList<Integer>();
-        for (CourseOffering offering : course.offerings()) {
-            String campus = offering.getLocation();
+    private int[] countOfferingsPerLocation(CourseStatistics statistics) {
+        int[] counts = new int[NUM_CAMPUSES];
+        for (int i = 0; i < statistics.getNumCampuses(); i++) {
+            String campus = statistics.getCampus(i);
+            int count = statistics.getOfferingCountAtCampus(i);
             if (campus.equals("BURNABY")) {
-                data.add(LOCATION_INDEX_BBY);
+                counts[LOCATION_INDEX_BBY] += count;
             } else if (campus.equals("SURREY")) {
-                data.add(LOCATION_INDEX_SRY);
+                counts[LOCATION_INDEX_SRY] += count;
             } else if (campus.equals("HRBRCNTR")) {
-                data.add(LOCATION_INDEX_VAN);
-            } else {
-                data.add(LOCATION_INDEX_OTHER);
-            }
-        }
-
-        return convertIntegerListToArray(data);
-    }
-
-    private int[] countOfferingsPerSemester(Course course) {
-        List<Integer> data = new ArrayList<Integer>();
-        for (CourseOffering offering : course.offerings()) {
-            Semester semester = offering.getSemester();
-
-            if (semester.isSpring()) {
-                data.add(SEMESTER_INDEX_SPRING);
-            } else if (semester.isSummer()) {
-                data.add(SEMESTER_INDEX_SUMMER);
-            } else if (semester.isFall()) {
-                data.add(SEMESTER_INDEX_FALL);
+                counts[LOCATION_INDEX_VAN] += count;
             } else {
-                assert false;
+                counts[LOCATION_INDEX_OTHER] += count;
             }
         }
-
-        return convertIntegerListToArray(data);
+        return counts;
     }
 
-    private int[] convertIntegerListToArray(List<Integer> data) {
-        int[] dataReturn = new int[data.size()];
-        for (int i = 0; i < data.size(); i++) {
-            dataReturn[i] = data.get(i);
+    // Counts are by term index (0=Spring, 1=Summer, 2=Fall).
+    private int[] countOfferingsPerSemester(CourseStatistics statistics) {
+        int[] counts = new int[NUM_SEMESTERS];
+        for (int term = 0; term < NUM_SEMESTERS; term++) {
+            counts[term] = statistics.getOfferingCountInTerm(term);
         }
-        return dataReturn;
+        return counts;
     }
 }